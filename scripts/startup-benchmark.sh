@@ -0,0 +1,91 @@
+#!/usr/bin/env bash
+#
+# Cold start to the first served ticket request, for the plain jar and the fast-startup build.
+#
+#   ./mvnw -DskipTests clean package && cp target/SupportSystem-0.0.1-SNAPSHOT.jar target/baseline.jar
+#   ./mvnw -DskipTests -Pfast-startup package
+#   ./scripts/startup-benchmark.sh [runs]
+#
+# Every mode runs with the prod profile against the database configured in application.yml.
+# A benchmark user is signed up on first use.
+
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-8080}
+BASE_URL="http://localhost:${PORT}"
+TARGET_DIR="$(cd "$(dirname "$0")/.." && pwd)/target"
+BASELINE_JAR="${TARGET_DIR}/baseline.jar"
+EXTRACTED_DIR="${TARGET_DIR}/extracted"
+APP_JAR="SupportSystem-0.0.1-SNAPSHOT.jar"
+EMAIL="startup-benchmark@example.com"
+PASSWORD="startup-benchmark"
+
+now_ms() {
+    date +%s%3N
+}
+
+start_app() {
+    local mode=$1
+    case "$mode" in
+        baseline)
+            java -jar "$BASELINE_JAR" --spring.profiles.active=prod --server.port="$PORT" ;;
+        aot)
+            (cd "$EXTRACTED_DIR" && exec java -Dspring.aot.enabled=true \
+                -jar "$APP_JAR" --spring.profiles.active=prod --server.port="$PORT") ;;
+        aot-cds)
+            (cd "$EXTRACTED_DIR" && exec java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+                -jar "$APP_JAR" --spring.profiles.active=prod --server.port="$PORT") ;;
+    esac
+}
+
+http_status() {
+    curl -s -o /dev/null -w '%{http_code}' "$@" || true
+}
+
+wait_for_status() {
+    local expected=$1
+    shift
+    until [ "$(http_status "$@")" = "$expected" ]; do
+        sleep 0.02
+    done
+}
+
+stop_app() {
+    kill "$1" 2>/dev/null || true
+    wait "$1" 2>/dev/null || true
+}
+
+fetch_token() {
+    local body response
+    body="{\"email\":\"${EMAIL}\",\"password\":\"${PASSWORD}\"}"
+    response=$(curl -s -H 'Content-Type: application/json' -d "$body" "${BASE_URL}/api/v1/auth/sign-in")
+    if ! grep -q accessToken <<<"$response"; then
+        body="{\"email\":\"${EMAIL}\",\"password\":\"${PASSWORD}\",\"fullName\":\"Startup Benchmark\",\"organizationName\":\"Startup Benchmark\"}"
+        response=$(curl -s -H 'Content-Type: application/json' -d "$body" "${BASE_URL}/api/v1/auth/sign-up")
+    fi
+    sed -E 's/.*"accessToken":"([^"]+)".*/\1/' <<<"$response"
+}
+
+start_app baseline >/dev/null 2>&1 &
+pid=$!
+until [ "$(http_status "${BASE_URL}/api/v1/tickets")" != "000" ]; do
+    sleep 0.1
+done
+TOKEN=$(fetch_token)
+stop_app "$pid"
+
+for mode in baseline aot aot-cds; do
+    timings=()
+    for ((run = 1; run <= RUNS; run++)); do
+        started=$(now_ms)
+        start_app "$mode" >/dev/null 2>&1 &
+        pid=$!
+        wait_for_status 200 -H "Authorization: Bearer ${TOKEN}" "${BASE_URL}/api/v1/tickets?size=1"
+        timings+=($(( $(now_ms) - started )))
+        stop_app "$pid"
+    done
+    sorted=($(printf '%s\n' "${timings[@]}" | sort -n))
+    printf '%-9s min %6d ms   median %6d ms   (%s)\n' \
+        "$mode" "${sorted[0]}" "${sorted[$(( RUNS / 2 ))]}" "${timings[*]}"
+done
@@ -0,0 +1,223 @@
+package com.dk.supportsystem.archive;
+
+import com.dk.supportsystem.enums.TicketPriority;
+import com.dk.supportsystem.enums.TicketStatus;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+final class ArchiveCodec {
+
+    static final byte FORMAT_VERSION = 5;
+
+    // Versions before 5 stored declaration ordinals; these are the enums as declared when those were written
+    private static final TicketStatus[] LEGACY_STATUSES = {
+            TicketStatus.OPEN, TicketStatus.IN_PROGRESS, TicketStatus.WAITING, TicketStatus.RESOLVED,
+            TicketStatus.CLOSED
+    };
+    private static final TicketPriority[] LEGACY_PRIORITIES = {
+            TicketPriority.LOW, TicketPriority.MEDIUM, TicketPriority.HIGH, TicketPriority.URGENT
+    };
+
+    private ArchiveCodec() {
+    }
+
+    static void writeBlock(DataOutputStream out, List<ArchivedTicket> tickets) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+        out.writeInt(tickets.size());
+        for (ArchivedTicket ticket : tickets) {
+            writeTicket(out, ticket);
+        }
+    }
+
+    static List<ArchivedTicket> readBlock(DataInputStream in) throws IOException {
+        byte version = in.readByte();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("Unsupported archive format version " + version);
+        }
+        int count = in.readInt();
+        List<ArchivedTicket> tickets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tickets.add(readTicket(in, version));
+        }
+        return tickets;
+    }
+
+    private static void writeTicket(DataOutputStream out, ArchivedTicket ticket) throws IOException {
+        out.writeLong(ticket.getId());
+        writeString(out, ticket.getTitle());
+        writeString(out, ticket.getDescription());
+        out.writeByte(ticket.getStatus().getCode());
+        out.writeByte(ticket.getPriority().getCode());
+        out.writeLong(ticket.getOrganizationId());
+        out.writeLong(ticket.getCreatedById());
+        writeNullableLong(out, ticket.getAssignedToId());
+        writeTime(out, ticket.getCreatedAt());
+        writeTime(out, ticket.getUpdatedAt());
+        writeTime(out, ticket.getResolvedAt());
+        writeTime(out, ticket.getClosedAt());
+        writeNullableLong(out, ticket.getDuplicateOfId());
+
+        out.writeBoolean(ticket.isHasSla());
+        if (ticket.isHasSla()) {
+            writeTime(out, ticket.getFirstResponseDeadline());
+            writeTime(out, ticket.getResolutionDeadline());
+            out.writeBoolean(Boolean.TRUE.equals(ticket.getFirstResponseMet()));
+            out.writeBoolean(Boolean.TRUE.equals(ticket.getResolutionMet()));
+            writeTime(out, ticket.getSlaCreatedAt());
+            writeTime(out, ticket.getFirstResponseAt());
+            writeNullableBoolean(out, ticket.getFirstResponseByAgent());
+        }
+
+        out.writeInt(ticket.getMessages().size());
+        for (ArchivedMessage message : ticket.getMessages()) {
+            out.writeLong(message.getId());
+            out.writeLong(message.getUserId());
+            writeString(out, message.getMessage());
+            out.writeBoolean(Boolean.TRUE.equals(message.getIsInternal()));
+            writeTime(out, message.getCreatedAt());
+
+            out.writeInt(message.getAttachments().size());
+            for (ArchivedAttachment attachment : message.getAttachments()) {
+                out.writeLong(attachment.getId());
+                writeString(out, attachment.getFileName());
+                writeString(out, attachment.getContentType());
+                out.writeLong(attachment.getSizeBytes());
+                writeString(out, attachment.getSha256());
+                writeTime(out, attachment.getCreatedAt());
+            }
+        }
+    }
+
+    private static ArchivedTicket readTicket(DataInputStream in, byte version) throws IOException {
+        ArchivedTicket ticket = ArchivedTicket.builder()
+                .id(in.readLong())
+                .title(readString(in))
+                .description(readString(in))
+                .status(readStatus(in, version))
+                .priority(readPriority(in, version))
+                .organizationId(in.readLong())
+                .createdById(in.readLong())
+                .assignedToId(readNullableLong(in))
+                .createdAt(readTime(in))
+                .updatedAt(readTime(in))
+                .resolvedAt(readTime(in))
+                .closedAt(readTime(in))
+                .build();
+        if (version >= 4) {
+            ticket.setDuplicateOfId(readNullableLong(in));
+        }
+
+        ticket.setHasSla(in.readBoolean());
+        if (ticket.isHasSla()) {
+            ticket.setFirstResponseDeadline(readTime(in));
+            ticket.setResolutionDeadline(readTime(in));
+            ticket.setFirstResponseMet(in.readBoolean());
+            ticket.setResolutionMet(in.readBoolean());
+            ticket.setSlaCreatedAt(readTime(in));
+            if (version >= 2) {
+                ticket.setFirstResponseAt(readTime(in));
+                ticket.setFirstResponseByAgent(readNullableBoolean(in));
+            }
+        }
+
+        int messageCount = in.readInt();
+        List<ArchivedMessage> messages = new ArrayList<>(messageCount);
+        for (int i = 0; i < messageCount; i++) {
+            ArchivedMessage message = ArchivedMessage.builder()
+                    .id(in.readLong())
+                    .userId(in.readLong())
+                    .message(readString(in))
+                    .isInternal(in.readBoolean())
+                    .createdAt(readTime(in))
+                    .build();
+            if (version >= 3) {
+                int attachmentCount = in.readInt();
+                for (int j = 0; j < attachmentCount; j++) {
+                    message.getAttachments().add(ArchivedAttachment.builder()
+                            .id(in.readLong())
+                            .fileName(readString(in))
+                            .contentType(readString(in))
+                            .sizeBytes(in.readLong())
+                            .sha256(readString(in))
+                            .createdAt(readTime(in))
+                            .build());
+                }
+            }
+            messages.add(message);
+        }
+        ticket.setMessages(messages);
+        return ticket;
+    }
+
+    private static TicketStatus readStatus(DataInputStream in, byte version) throws IOException {
+        byte value = in.readByte();
+        return version >= 5 ? TicketStatus.fromCode(value) : LEGACY_STATUSES[value];
+    }
+
+    private static TicketPriority readPriority(DataInputStream in, byte version) throws IOException {
+        byte value = in.readByte();
+        return version >= 5 ? TicketPriority.fromCode(value) : LEGACY_PRIORITIES[value];
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readNullableLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeNullableBoolean(DataOutputStream out, Boolean value) throws IOException {
+        out.writeByte(value == null ? -1 : value ? 1 : 0);
+    }
+
+    private static Boolean readNullableBoolean(DataInputStream in) throws IOException {
+        byte value = in.readByte();
+        return value < 0 ? null : value == 1;
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,21 @@
+package com.dk.supportsystem.archive;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedAttachment {
+    private Long id;
+    private String fileName;
+    private String contentType;
+    private Long sizeBytes;
+    private String sha256;
+    private LocalDateTime createdAt;
+}
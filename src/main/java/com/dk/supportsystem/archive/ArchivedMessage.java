@@ -0,0 +1,25 @@
+package com.dk.supportsystem.archive;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedMessage {
+    private Long id;
+    private Long userId;
+    private String message;
+    private Boolean isInternal;
+    private LocalDateTime createdAt;
+
+    @Builder.Default
+    private List<ArchivedAttachment> attachments = new ArrayList<>();
+}
@@ -0,0 +1,44 @@
+package com.dk.supportsystem.archive;
+
+import com.dk.supportsystem.enums.TicketPriority;
+import com.dk.supportsystem.enums.TicketStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedTicket {
+    private Long id;
+    private String title;
+    private String description;
+    private TicketStatus status;
+    private TicketPriority priority;
+    private Long organizationId;
+    private Long createdById;
+    private Long assignedToId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime resolvedAt;
+    private LocalDateTime closedAt;
+    private Long duplicateOfId;
+
+    private boolean hasSla;
+    private LocalDateTime firstResponseDeadline;
+    private LocalDateTime resolutionDeadline;
+    private Boolean firstResponseMet;
+    private LocalDateTime firstResponseAt;
+    private Boolean firstResponseByAgent;
+    private Boolean resolutionMet;
+    private LocalDateTime slaCreatedAt;
+
+    @Builder.Default
+    private List<ArchivedMessage> messages = new ArrayList<>();
+}
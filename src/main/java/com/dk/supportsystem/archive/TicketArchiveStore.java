@@ -0,0 +1,319 @@
+package com.dk.supportsystem.archive;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Append-only cold store for closed tickets. Tickets are written in deflate-compressed blocks to
+ * rolling segment files; a sparse index keeps one entry (id range and file position) per block.
+ * <p>
+ * Archive runs restart from the lowest closed id, so the id ranges of blocks from different runs overlap.
+ * A per-block id directory ({@code archive.ids}: block number, count, sorted ids) lets a lookup skip every
+ * block that does not hold the ticket without inflating it. Blocks written before the directory existed
+ * have no entry there and are inflated as before; recently read blocks are kept decoded.
+ * <p>
+ * The directory is shared by every node: one node appends (the {@code ticket-archive} job has a single
+ * shard) and all of them read, picking up blocks appended elsewhere from the tail of the index file.
+ */
+@Slf4j
+@Component
+public class TicketArchiveStore {
+
+    private static final String INDEX_FILE = "archive.idx";
+    private static final String IDS_FILE = "archive.ids";
+    private static final int INDEX_ENTRY_BYTES = 32;
+    private static final int IDS_HEADER_BYTES = 8;
+
+    @Value("${archive.directory}")
+    private String directory;
+
+    @Value("${archive.segment-max-bytes}")
+    private long segmentMaxBytes;
+
+    @Value("${archive.block-cache-size}")
+    private int blockCacheSize;
+
+    private final List<BlockEntry> index = new CopyOnWriteArrayList<>();
+    private final Map<Integer, IdDirectory> directories = new ConcurrentHashMap<>();
+    private Map<Integer, List<ArchivedTicket>> decodedBlocks;
+    private Path root;
+    private int currentSegment;
+    private volatile long idsEnd;
+
+    @PostConstruct
+    void loadIndex() throws IOException {
+        root = Paths.get(directory);
+        Files.createDirectories(root);
+        decodedBlocks = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<ArchivedTicket>> eldest) {
+                return size() > blockCacheSize;
+            }
+        });
+        refreshIndex();
+        log.info("Loaded {} archive blocks ({} with id directories) from {}",
+                index.size(), directories.size(), root.toAbsolutePath());
+    }
+
+    /**
+     * Reads index entries and id directories appended since the last look, by this node or another one.
+     * A partially written entry, or a directory record whose block never made it into the index, is left
+     * alone until it is complete or the writer replaces it.
+     */
+    private synchronized void refreshIndex() throws IOException {
+        Path indexPath = root.resolve(INDEX_FILE);
+        if (!Files.exists(indexPath)) {
+            return;
+        }
+
+        long known = (long) index.size() * INDEX_ENTRY_BYTES;
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            long available = (channel.size() - known) / INDEX_ENTRY_BYTES * INDEX_ENTRY_BYTES;
+            if (available > 0) {
+                ByteBuffer buffer = readAt(channel, known, Math.toIntExact(available));
+                while (buffer.remaining() >= INDEX_ENTRY_BYTES) {
+                    BlockEntry entry = new BlockEntry(
+                            buffer.getInt(), buffer.getLong(), buffer.getInt(), buffer.getLong(), buffer.getLong());
+                    index.add(entry);
+                    currentSegment = Math.max(currentSegment, entry.segment());
+                }
+            }
+        }
+
+        Path idsPath = root.resolve(IDS_FILE);
+        if (!Files.exists(idsPath)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(idsPath, StandardOpenOption.READ)) {
+            long position = idsEnd;
+            while (channel.size() - position >= IDS_HEADER_BYTES) {
+                ByteBuffer header = readAt(channel, position, IDS_HEADER_BYTES);
+                int block = header.getInt();
+                int count = header.getInt();
+                long end = position + IDS_HEADER_BYTES + (long) count * Long.BYTES;
+                if (block >= index.size() || channel.size() < end) {
+                    break;
+                }
+                directories.put(block, new IdDirectory(position + IDS_HEADER_BYTES, count));
+                position = end;
+            }
+            idsEnd = position;
+        }
+    }
+
+    /**
+     * Checks for blocks appended by the archiving node with a single stat of the index file.
+     */
+    private void refreshIfGrown() {
+        try {
+            if (Files.size(root.resolve(INDEX_FILE)) >= (long) (index.size() + 1) * INDEX_ENTRY_BYTES) {
+                refreshIndex();
+            }
+        } catch (NoSuchFileException e) {
+            // Nothing archived yet
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive index", e);
+        }
+    }
+
+    public synchronized void append(List<ArchivedTicket> tickets) throws IOException {
+        if (tickets.isEmpty()) {
+            return;
+        }
+        // The job may have run on another node since this one last wrote
+        refreshIndex();
+
+        byte[] block = compress(tickets);
+        Path segmentPath = segmentPath(currentSegment);
+        if (Files.exists(segmentPath) && Files.size(segmentPath) + block.length > segmentMaxBytes) {
+            currentSegment++;
+            segmentPath = segmentPath(currentSegment);
+        }
+
+        long offset;
+        try (FileChannel channel = FileChannel.open(segmentPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            offset = channel.size();
+            writeFully(channel, ByteBuffer.wrap(block));
+            channel.force(true);
+        }
+
+        long[] ids = tickets.stream().mapToLong(ArchivedTicket::getId).sorted().toArray();
+        int blockNumber = index.size();
+        BlockEntry entry = new BlockEntry(currentSegment, offset, block.length, ids[0], ids[ids.length - 1]);
+
+        // Leftovers of an interrupted append are cut off; the index entry, written last, commits the block
+        ByteBuffer idsBuffer = ByteBuffer.allocate(IDS_HEADER_BYTES + ids.length * Long.BYTES)
+                .putInt(blockNumber)
+                .putInt(ids.length);
+        idsBuffer.asLongBuffer().put(ids);
+        idsBuffer.rewind();
+        try (FileChannel channel = FileChannel.open(root.resolve(IDS_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(idsEnd);
+            channel.position(idsEnd);
+            writeFully(channel, idsBuffer);
+            channel.force(true);
+        }
+
+        ByteBuffer indexBuffer = ByteBuffer.allocate(INDEX_ENTRY_BYTES)
+                .putInt(entry.segment())
+                .putLong(entry.offset())
+                .putInt(entry.length())
+                .putLong(entry.minId())
+                .putLong(entry.maxId())
+                .flip();
+        try (FileChannel channel = FileChannel.open(root.resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long indexEnd = (long) blockNumber * INDEX_ENTRY_BYTES;
+            channel.truncate(indexEnd);
+            channel.position(indexEnd);
+            writeFully(channel, indexBuffer);
+            channel.force(true);
+        }
+
+        index.add(entry);
+        directories.put(blockNumber, new IdDirectory(idsEnd + IDS_HEADER_BYTES, ids.length));
+        idsEnd += IDS_HEADER_BYTES + (long) ids.length * Long.BYTES;
+    }
+
+    public Optional<ArchivedTicket> find(Long ticketId) {
+        if (ticketId == null) {
+            return Optional.empty();
+        }
+        refreshIfGrown();
+
+        // Newest blocks first: a ticket archived twice after an interrupted run resolves to its latest copy
+        for (int i = index.size() - 1; i >= 0; i--) {
+            BlockEntry entry = index.get(i);
+            if (ticketId < entry.minId() || ticketId > entry.maxId()) {
+                continue;
+            }
+            IdDirectory ids = directories.get(i);
+            if (ids != null && !contains(ids, ticketId)) {
+                continue;
+            }
+            for (ArchivedTicket ticket : decodedBlock(i, entry)) {
+                if (ticket.getId().equals(ticketId)) {
+                    return Optional.of(ticket);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private boolean contains(IdDirectory ids, long ticketId) {
+        try (FileChannel channel = FileChannel.open(root.resolve(IDS_FILE), StandardOpenOption.READ)) {
+            LongBuffer sorted = readAt(channel, ids.offset(), ids.count() * Long.BYTES).asLongBuffer();
+            int low = 0;
+            int high = ids.count() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                long id = sorted.get(middle);
+                if (id < ticketId) {
+                    low = middle + 1;
+                } else if (id > ticketId) {
+                    high = middle - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive id directory", e);
+        }
+    }
+
+    private List<ArchivedTicket> decodedBlock(int blockNumber, BlockEntry entry) {
+        List<ArchivedTicket> tickets = decodedBlocks.get(blockNumber);
+        if (tickets == null) {
+            tickets = readBlock(entry);
+            decodedBlocks.put(blockNumber, tickets);
+        }
+        return tickets;
+    }
+
+    private List<ArchivedTicket> readBlock(BlockEntry entry) {
+        try (FileChannel channel = FileChannel.open(segmentPath(entry.segment()), StandardOpenOption.READ)) {
+            ByteBuffer buffer = readAt(channel, entry.offset(), entry.length());
+            if (buffer.limit() < entry.length()) {
+                throw new IOException("Truncated archive segment " + entry.segment());
+            }
+            try (DataInputStream in = new DataInputStream(new InflaterInputStream(
+                    new ByteArrayInputStream(buffer.array(), 0, buffer.limit())))) {
+                return ArchiveCodec.readBlock(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive block", e);
+        }
+    }
+
+    private byte[] compress(List<ArchivedTicket> tickets) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            ArchiveCodec.writeBlock(out, tickets);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private Path segmentPath(int segment) {
+        return root.resolve(String.format("segment-%06d.seg", segment));
+    }
+
+    /**
+     * Reads up to {@code length} bytes at {@code position}; the flipped buffer is shorter only at end of file.
+     */
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private record BlockEntry(int segment, long offset, int length, long minId, long maxId) {
+    }
+
+    private record IdDirectory(long offset, int count) {
+    }
+}
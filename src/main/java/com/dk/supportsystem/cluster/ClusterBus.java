@@ -0,0 +1,272 @@
+package com.dk.supportsystem.cluster;
+
+import com.dk.supportsystem.shard.ShardCatalog;
+import com.dk.supportsystem.shard.ShardContext;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Change fan-out between application nodes over PostgreSQL LISTEN/NOTIFY. Changes published inside a
+ * transaction are de-duplicated and sent as one NOTIFY just before commit, so Postgres only delivers them
+ * if the data they describe is committed. Each node listens on a dedicated connection outside the pool,
+ * ignores its own notifications and hands coalesced ticket and organization ids to every
+ * {@link ClusterSubscriber}. With several shards a NOTIFY goes out on the shard that committed the data,
+ * and every shard gets its own listener, which dispatches with that shard as the current one.
+ *
+ * <p>Payload: {@code <node>|T:<orgId>:<ticketId>,O:<orgId>,...}
+ */
+@Slf4j
+@Component
+public class ClusterBus implements SmartLifecycle {
+    
+    // NOTIFY payloads are limited to 8000 bytes
+    private static final int MAX_PAYLOAD_CHARS = 7900;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final List<ClusterSubscriber> subscribers;
+    private final boolean enabled;
+    private final String channel;
+    private final ShardCatalog shardCatalog;
+    private final int pollTimeoutMs;
+    private final long coalesceMs;
+    private final long reconnectDelayMs;
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    
+    private volatile boolean running;
+    private final List<Thread> listeners = new ArrayList<>();
+    
+    public ClusterBus(JdbcTemplate jdbcTemplate,
+                      List<ClusterSubscriber> subscribers,
+                      @Value("${cluster.enabled}") boolean enabled,
+                      @Value("${cluster.channel}") String channel,
+                      ShardCatalog shardCatalog,
+                      @Value("${cluster.poll-timeout-ms}") int pollTimeoutMs,
+                      @Value("${cluster.coalesce-ms}") long coalesceMs,
+                      @Value("${cluster.reconnect-delay-ms}") long reconnectDelayMs) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid cluster channel name: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.subscribers = subscribers;
+        this.enabled = enabled;
+        this.channel = channel;
+        this.shardCatalog = shardCatalog;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.coalesceMs = coalesceMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+    
+    public void ticketChanged(Long organizationId, Long ticketId) {
+        publish("T:" + organizationId + ":" + ticketId);
+    }
+    
+    public void organizationChanged(Long organizationId) {
+        publish("O:" + organizationId);
+    }
+    
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (String shard : shardCatalog.names()) {
+            Thread listener = new Thread(() -> listen(shard), "cluster-bus-listener-" + shard);
+            listener.setDaemon(true);
+            listener.start();
+            listeners.add(listener);
+        }
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        for (Thread listener : listeners) {
+            listener.interrupt();
+        }
+        for (Thread listener : listeners) {
+            try {
+                listener.join(pollTimeoutMs * 2L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        listeners.clear();
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    private void publish(String key) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(List.of(key));
+            return;
+        }
+        
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> bound = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    send(bound);
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ClusterBus.this);
+                }
+            });
+            pending = bound;
+        }
+        pending.add(key);
+    }
+    
+    private void send(Collection<String> keys) {
+        StringBuilder payload = new StringBuilder(nodeId).append('|');
+        int header = payload.length();
+        for (String key : keys) {
+            if (payload.length() + key.length() + 1 > MAX_PAYLOAD_CHARS) {
+                notify(payload.toString());
+                payload.setLength(header);
+            }
+            if (payload.length() > header) {
+                payload.append(',');
+            }
+            payload.append(key);
+        }
+        if (payload.length() > header) {
+            notify(payload.toString());
+        }
+    }
+    
+    private void notify(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", (ResultSetExtractor<Void>) rs -> null, channel, payload);
+    }
+    
+    private void listen(String shard) {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = shardCatalog.connect(shard)) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.info("Listening for cluster events on channel {} of shard {} as node {}", channel, shard, nodeId);
+                if (connectedBefore) {
+                    ShardContext.run(shard, this::resync);
+                }
+                connectedBefore = true;
+                
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications == null || notifications.length == 0) {
+                        continue;
+                    }
+                    Changes changes = new Changes();
+                    changes.add(notifications);
+                    // Writes tend to come in bursts; a short pause lets them collapse into a single dispatch
+                    if (coalesceMs > 0) {
+                        Thread.sleep(coalesceMs);
+                        changes.add(pgConnection.getNotifications(1));
+                    }
+                    ShardContext.run(shard, () -> dispatch(changes));
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Cluster bus connection to shard {} lost, reconnecting in {} ms: {}",
+                            shard, reconnectDelayMs, e.getMessage());
+                    sleepQuietly(reconnectDelayMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    private void dispatch(Changes changes) {
+        for (ClusterSubscriber subscriber : subscribers) {
+            try {
+                if (!changes.tickets.isEmpty()) {
+                    subscriber.onTicketsChanged(changes.tickets);
+                }
+                if (!changes.organizations.isEmpty()) {
+                    subscriber.onOrganizationsChanged(changes.organizations);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Cluster subscriber {} failed", subscriber.getClass().getSimpleName(), e);
+            }
+        }
+    }
+    
+    private void resync() {
+        for (ClusterSubscriber subscriber : subscribers) {
+            try {
+                subscriber.onResync();
+            } catch (RuntimeException e) {
+                log.warn("Cluster subscriber {} failed to resync", subscriber.getClass().getSimpleName(), e);
+            }
+        }
+    }
+    
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+    
+    private final class Changes {
+        private final Set<Long> tickets = new LinkedHashSet<>();
+        private final Set<Long> organizations = new LinkedHashSet<>();
+        
+        void add(PGNotification[] notifications) {
+            if (notifications == null) {
+                return;
+            }
+            for (PGNotification notification : notifications) {
+                String payload = notification.getParameter();
+                int separator = payload.indexOf('|');
+                if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+                    continue;
+                }
+                for (String key : payload.substring(separator + 1).split(",")) {
+                    String[] parts = key.split(":");
+                    organizations.add(Long.valueOf(parts[1]));
+                    if (parts[0].equals("T")) {
+                        tickets.add(Long.valueOf(parts[2]));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.dk.supportsystem.cluster;
+
+import java.util.Set;
+
+/**
+ * Receives changes committed by other nodes. Callbacks run on the bus listener thread with notifications
+ * already coalesced, so a burst of writes to one ticket arrives as a single id.
+ */
+public interface ClusterSubscriber {
+    
+    void onTicketsChanged(Set<Long> ticketIds);
+    
+    default void onOrganizationsChanged(Set<Long> organizationIds) {
+    }
+    
+    /**
+     * Called after the listener reconnected; notifications sent while it was away are lost, so local state
+     * has to be reloaded.
+     */
+    void onResync();
+}
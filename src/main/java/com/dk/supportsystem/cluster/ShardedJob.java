@@ -0,0 +1,21 @@
+package com.dk.supportsystem.cluster;
+
+import java.time.Duration;
+
+/**
+ * Periodic work split into a fixed number of shards, each run by exactly one node at a time. Jobs usually
+ * shard by {@code organization_id % shardCount}, so every shard covers a stable set of organizations.
+ */
+public interface ShardedJob {
+    
+    /**
+     * Stable name; its hash is the advisory lock class, so renaming a job moves all of its shards.
+     */
+    String name();
+    
+    int shardCount();
+    
+    Duration interval();
+    
+    void run(int shard, int shardCount);
+}
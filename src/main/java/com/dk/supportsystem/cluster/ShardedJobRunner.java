@@ -0,0 +1,236 @@
+package com.dk.supportsystem.cluster;
+
+import com.dk.supportsystem.repository.ClusterNodeRepository;
+import com.dk.supportsystem.shard.ShardCatalog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link ShardedJob}s so that each shard is executed by one node at a time and shards spread evenly
+ * over the live nodes. Ownership is a session-level {@code pg_try_advisory_lock(job, shard)} held on a
+ * dedicated connection: if a node dies its connection closes and its shards become claimable.
+ *
+ * <p>Every heartbeat the node refreshes its {@code cluster_nodes} row, counts the live nodes and aims for
+ * {@code ceil(shards / nodes)} shards per job, releasing idle extras when nodes join and claiming free
+ * shards when nodes leave. Owned shards are then run on a small worker pool once their interval elapsed.
+ * A run that is in flight when the lock connection drops is not interrupted, so jobs must be idempotent.
+ */
+@Slf4j
+@Component
+public class ShardedJobRunner implements SmartLifecycle {
+    
+    private final List<ShardedJob> jobs;
+    private final ClusterNodeRepository nodeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final ShardCatalog shardCatalog;
+    private final long heartbeatIntervalMs;
+    private final long nodeTimeoutMs;
+    private final int threads;
+    private final String nodeId = UUID.randomUUID().toString();
+    
+    private final Map<String, Set<Integer>> owned = new HashMap<>();
+    private final Map<String, Long> lastRun = new HashMap<>();
+    private final Set<String> runningShards = ConcurrentHashMap.newKeySet();
+    
+    private ScheduledExecutorService scheduler;
+    private ExecutorService workers;
+    private Connection lockConnection;
+    private volatile boolean running;
+    
+    public ShardedJobRunner(List<ShardedJob> jobs,
+                            ClusterNodeRepository nodeRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${jobs.enabled}") boolean enabled,
+                            ShardCatalog shardCatalog,
+                            @Value("${jobs.heartbeat-interval-ms}") long heartbeatIntervalMs,
+                            @Value("${jobs.node-timeout-ms}") long nodeTimeoutMs,
+                            @Value("${jobs.threads}") int threads) {
+        this.jobs = jobs;
+        this.nodeRepository = nodeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.shardCatalog = shardCatalog;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        this.nodeTimeoutMs = nodeTimeoutMs;
+        this.threads = threads;
+    }
+    
+    @Override
+    public void start() {
+        if (!enabled || jobs.isEmpty()) {
+            return;
+        }
+        running = true;
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "sharded-job-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sharded-job-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::tick, 0, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Sharded job runner started as node {} with jobs {}", nodeId,
+                jobs.stream().map(ShardedJob::name).toList());
+    }
+    
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdownNow();
+        workers.shutdown();
+        try {
+            workers.awaitTermination(heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+            scheduler.awaitTermination(heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Closing the session releases every advisory lock at once
+        closeLockConnection();
+        try {
+            nodeRepository.deleteById(nodeId);
+        } catch (RuntimeException e) {
+            log.debug("Could not remove node row {}", nodeId, e);
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    private void tick() {
+        try {
+            long liveNodes = heartbeat();
+            Connection connection = lockConnection();
+            for (ShardedJob job : jobs) {
+                rebalance(connection, job, liveNodes);
+                dispatch(job);
+            }
+        } catch (SQLException e) {
+            log.warn("Lost advisory lock connection, releasing all shards: {}", e.getMessage());
+            closeLockConnection();
+        } catch (RuntimeException e) {
+            log.warn("Sharded job heartbeat failed", e);
+        }
+    }
+    
+    private long heartbeat() {
+        Long alive = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime cutoff = now.minusNanos(nodeTimeoutMs * 1_000_000L);
+            nodeRepository.heartbeat(nodeId, now);
+            nodeRepository.deleteStale(cutoff);
+            return nodeRepository.countAlive(cutoff);
+        });
+        return alive != null ? Math.max(alive, 1) : 1;
+    }
+    
+    private void rebalance(Connection connection, ShardedJob job, long liveNodes) throws SQLException {
+        Set<Integer> shards = owned.computeIfAbsent(job.name(), name -> new TreeSet<>());
+        int target = (int) ((job.shardCount() + liveNodes - 1) / liveNodes);
+        
+        // Hand back surplus shards that are idle; busy ones go on a later heartbeat
+        for (Integer shard : List.copyOf(shards)) {
+            if (shards.size() <= target) {
+                break;
+            }
+            if (!runningShards.contains(key(job, shard))) {
+                advisory(connection, "SELECT pg_advisory_unlock(?, ?)", job, shard);
+                shards.remove(shard);
+            }
+        }
+        
+        // Start probing at a node-specific offset so joining nodes do not all race for shard 0
+        int offset = Math.floorMod(nodeId.hashCode(), job.shardCount());
+        for (int i = 0; i < job.shardCount() && shards.size() < target; i++) {
+            int shard = (offset + i) % job.shardCount();
+            if (!shards.contains(shard) && advisory(connection, "SELECT pg_try_advisory_lock(?, ?)", job, shard)) {
+                shards.add(shard);
+            }
+        }
+    }
+    
+    private void dispatch(ShardedJob job) {
+        long now = System.currentTimeMillis();
+        for (Integer shard : owned.getOrDefault(job.name(), Set.of())) {
+            String key = key(job, shard);
+            Long previous = lastRun.get(key);
+            if (previous != null && now - previous < job.interval().toMillis() || !runningShards.add(key)) {
+                continue;
+            }
+            lastRun.put(key, now);
+            workers.execute(() -> {
+                try {
+                    job.run(shard, job.shardCount());
+                } catch (RuntimeException e) {
+                    log.warn("Job {} failed on shard {}", job.name(), shard, e);
+                } finally {
+                    runningShards.remove(key);
+                }
+            });
+        }
+    }
+    
+    private boolean advisory(Connection connection, String sql, ShardedJob job, int shard) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, job.name().hashCode());
+            statement.setInt(2, shard);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+    
+    private Connection lockConnection() throws SQLException {
+        if (lockConnection == null || !lockConnection.isValid(2)) {
+            closeLockConnection();
+            // Node registry and advisory locks always live in the default database
+            lockConnection = shardCatalog.connect(ShardCatalog.DEFAULT_SHARD);
+        }
+        return lockConnection;
+    }
+    
+    private void closeLockConnection() {
+        owned.clear();
+        if (lockConnection == null) {
+            return;
+        }
+        try {
+            lockConnection.close();
+        } catch (SQLException e) {
+            log.debug("Failed to close advisory lock connection", e);
+        }
+        lockConnection = null;
+    }
+    
+    private static String key(ShardedJob job, int shard) {
+        return job.name() + "#" + shard;
+    }
+}
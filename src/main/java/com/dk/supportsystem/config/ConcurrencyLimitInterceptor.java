@@ -0,0 +1,55 @@
+package com.dk.supportsystem.config;
+
+import com.dk.supportsystem.enums.RequestPriority;
+import com.dk.supportsystem.service.AdaptiveConcurrencyLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Holds a slot of the adaptive concurrency limit for the duration of a ticket request.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+    
+    private static final String STARTED_AT = ConcurrencyLimitInterceptor.class.getName() + ".startedAt";
+    
+    private final AdaptiveConcurrencyLimiter limiter;
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        limiter.acquire(classify(request));
+        request.setAttribute(STARTED_AT, System.nanoTime());
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        Object startedAt = request.getAttribute(STARTED_AT);
+        if (startedAt != null) {
+            limiter.release(System.nanoTime() - (Long) startedAt);
+        }
+    }
+    
+    static RequestPriority classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        
+        if (method == HttpMethod.GET || method == HttpMethod.HEAD) {
+            // Lists and audit trails are bulk; a single ticket or thread is what agents need to meet SLAs
+            if (path.equals("/api/v1/tickets") || path.endsWith("/history")) {
+                return RequestPriority.BULK_READ;
+            }
+            return RequestPriority.CRITICAL_READ;
+        }
+        if (path.equals("/api/v1/tickets/batch-get")) {
+            return RequestPriority.BULK_READ;
+        }
+        return RequestPriority.WRITE;
+    }
+}
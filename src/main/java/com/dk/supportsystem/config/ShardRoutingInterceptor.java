@@ -0,0 +1,45 @@
+package com.dk.supportsystem.config;
+
+import com.dk.supportsystem.exception.ServiceOverloadedException;
+import com.dk.supportsystem.security.JwtAuthenticationFilter;
+import com.dk.supportsystem.shard.ShardContext;
+import com.dk.supportsystem.shard.ShardDirectory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Points the request at the shard of the caller's organization. Writes to an organization that is being
+ * moved are turned away with a retryable 503 until the move completes; reads keep hitting the source.
+ */
+@Component
+@RequiredArgsConstructor
+public class ShardRoutingInterceptor implements HandlerInterceptor {
+    
+    private final ShardDirectory directory;
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object organizationId = request.getAttribute(JwtAuthenticationFilter.ORGANIZATION_ID_ATTRIBUTE);
+        if (organizationId == null) {
+            return true;
+        }
+        
+        Long id = (Long) organizationId;
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        if (directory.isMoving(id) && method != HttpMethod.GET && method != HttpMethod.HEAD) {
+            throw new ServiceOverloadedException("Organization is being moved, please retry shortly");
+        }
+        ShardContext.set(directory.shardOf(id));
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        ShardContext.clear();
+    }
+}
@@ -0,0 +1,73 @@
+package com.dk.supportsystem.config;
+
+import com.dk.supportsystem.shard.ShardCatalog;
+import com.dk.supportsystem.shard.ShardContext;
+import com.dk.supportsystem.shard.ShardRoutingDataSource;
+import com.dk.supportsystem.shard.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationStrategy;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+    
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+    public DataSource shardRoutingDataSource(ShardCatalog catalog) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (String name : catalog.names()) {
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(catalog.get(name).url())
+                    .username(catalog.get(name).username())
+                    .password(catalog.get(name).password())
+                    .build();
+            pool.setPoolName("shard-" + name);
+            targets.put(name, pool);
+        }
+        
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(targets.get(ShardCatalog.DEFAULT_SHARD));
+        routing.setLenientFallback(false);
+        return routing;
+    }
+    
+    /**
+     * Migrates every shard, then moves each shard's sequences to its {@code id-base} so ids stay unique
+     * across shards and survive tenant moves unchanged.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+    public FlywayMigrationStrategy shardedFlywayMigration(ShardCatalog catalog, DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        return flyway -> {
+            for (String name : catalog.names()) {
+                long idBase = catalog.get(name).idBase();
+                ShardContext.run(name, () -> {
+                    flyway.migrate();
+                    if (idBase > 0) {
+                        jdbcTemplate.queryForList("SELECT setval(format('%I.%I', schemaname, sequencename)::regclass, ?) " +
+                                "FROM pg_sequences WHERE schemaname = current_schema() " +
+                                "AND COALESCE(last_value, 0) < ?", idBase, idBase);
+                    }
+                });
+                log.info("Migrated shard {}", name);
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.dk.supportsystem.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    
+    private final ShardRoutingInterceptor shardRoutingInterceptor;
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+    
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> ticketListEtagFilter() {
+        ShallowEtagHeaderFilter filter = new ShallowEtagHeaderFilter();
+        filter.setWriteWeakETag(true);
+        
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/v1/tickets");
+        return registration;
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(shardRoutingInterceptor)
+                .addPathPatterns("/api/**");
+        
+        // Attachment transfers are dominated by file I/O, not the database, so they would skew the latency signal
+        registry.addInterceptor(concurrencyLimitInterceptor)
+                .addPathPatterns("/api/v1/tickets", "/api/v1/tickets/**")
+                .excludePathPatterns("/api/v1/tickets/*/attachments/**",
+                        "/api/v1/tickets/*/messages/*/attachments");
+    }
+}
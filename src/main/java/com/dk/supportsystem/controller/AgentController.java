@@ -0,0 +1,32 @@
+package com.dk.supportsystem.controller;
+
+import com.dk.supportsystem.dto.response.WorkQueueItemResponse;
+import com.dk.supportsystem.service.AgentWorkQueue;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/agents")
+@RequiredArgsConstructor
+public class AgentController {
+    
+    private static final int MAX_QUEUE_SIZE = 100;
+    
+    private final AgentWorkQueue workQueue;
+    
+    @GetMapping("/me/queue")
+    public ResponseEntity<List<WorkQueueItemResponse>> getMyQueue(
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
+        Long userId = (Long) authentication.getPrincipal();
+        int size = Math.max(1, Math.min(limit, MAX_QUEUE_SIZE));
+        return ResponseEntity.ok(workQueue.peek(userId, size));
+    }
+}
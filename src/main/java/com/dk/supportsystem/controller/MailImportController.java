@@ -0,0 +1,40 @@
+package com.dk.supportsystem.controller;
+
+import com.dk.supportsystem.dto.request.MailImportRequest;
+import com.dk.supportsystem.dto.response.MailImportResponse;
+import com.dk.supportsystem.service.MailIngestionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/mail-imports")
+@RequiredArgsConstructor
+public class MailImportController {
+    
+    private final MailIngestionService mailIngestionService;
+    
+    @PostMapping
+    public ResponseEntity<MailImportResponse> startImport(
+            @Valid @RequestBody MailImportRequest request,
+            Authentication authentication) {
+        Long userId = (Long) authentication.getPrincipal();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(mailIngestionService.start(request, userId));
+    }
+    
+    @GetMapping("/{importId}")
+    public ResponseEntity<MailImportResponse> getImport(
+            @PathVariable Long importId,
+            Authentication authentication) {
+        Long userId = (Long) authentication.getPrincipal();
+        return ResponseEntity.ok(mailIngestionService.getImport(importId, userId));
+    }
+}
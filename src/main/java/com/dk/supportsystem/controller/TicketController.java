@@ -2,11 +2,26 @@ package com.dk.supportsystem.controller;
 
 import com.dk.supportsystem.dto.request.AddMessageRequest;
 import com.dk.supportsystem.dto.request.AssignTicketRequest;
+import com.dk.supportsystem.dto.request.BatchGetTicketsRequest;
 import com.dk.supportsystem.dto.request.CreateTicketRequest;
 import com.dk.supportsystem.dto.request.UpdateTicketStatusRequest;
+import com.dk.supportsystem.dto.response.BatchTicketResponse;
+import com.dk.supportsystem.dto.response.CompactMessageThreadResponse;
+import com.dk.supportsystem.dto.response.CompactPayloads;
+import com.dk.supportsystem.dto.response.CompactTicketPageResponse;
 import com.dk.supportsystem.dto.response.MessageResponse;
+import com.dk.supportsystem.dto.response.ResourceVersion;
+import com.dk.supportsystem.dto.response.TicketEventResponse;
 import com.dk.supportsystem.dto.response.TicketResponse;
+import com.dk.supportsystem.dto.response.TicketSummaryResponse;
+import com.dk.supportsystem.enums.IdempotencyScope;
+import com.dk.supportsystem.enums.MessageVisibility;
 import com.dk.supportsystem.enums.TicketStatus;
+import com.dk.supportsystem.service.ConcurrentUpdateRetrier;
+import com.dk.supportsystem.service.IdempotencyKey;
+import com.dk.supportsystem.service.IdempotencyService;
+import com.dk.supportsystem.service.TicketListCache;
+import com.dk.supportsystem.service.TicketReadCoalescer;
 import com.dk.supportsystem.service.TicketService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -14,10 +29,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -26,19 +47,29 @@ import java.util.List;
 public class TicketController {
     
     private final TicketService ticketService;
+    private final ConcurrentUpdateRetrier updateRetrier;
+    private final IdempotencyService idempotencyService;
+    private final TicketListCache listCache;
+    private final TicketReadCoalescer readCoalescer;
     
     @PostMapping
     public ResponseEntity<TicketResponse> createTicket(
             @Valid @RequestBody CreateTicketRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication) {
         Long userId = (Long) authentication.getPrincipal();
-        return ResponseEntity.ok(ticketService.createTicket(request, userId));
+        IdempotencyKey key = idempotencyService.keyFor(IdempotencyScope.CREATE_TICKET, userId, idempotencyKey,
+                request.getTitle(), request.getDescription(), request.getPriority().getCode());
+        return ResponseEntity.ok(idempotencyService.execute(key,
+                () -> ticketService.createTicket(request, userId, key),
+                ticketId -> ticketService.getTicketById(ticketId, userId)));
     }
     
     @GetMapping
-    public ResponseEntity<Page<TicketResponse>> getTickets(
+    public ResponseEntity<byte[]> getTickets(
             @RequestParam(required = false) TicketStatus status,
             @RequestParam(required = false) Long assignedTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime activeSince,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
@@ -47,15 +78,113 @@ public class TicketController {
         Long userId = (Long) authentication.getPrincipal();
         Sort sort = sortDir.equalsIgnoreCase("ASC") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(page, size, sort);
-        return ResponseEntity.ok(ticketService.getTickets(userId, status, assignedTo, pageable));
+        byte[] body = listCache.get(ticketService.getOrganizationId(userId),
+                listQuery("full", status, assignedTo, activeSince, pageable),
+                () -> ticketService.getTickets(userId, status, assignedTo, activeSince, pageable));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+    
+    @GetMapping(produces = {MediaType.APPLICATION_CBOR_VALUE, CompactPayloads.SMILE_VALUE})
+    public ResponseEntity<CompactTicketPageResponse> getTicketsCompact(
+            @RequestParam(required = false) TicketStatus status,
+            @RequestParam(required = false) Long assignedTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime activeSince,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "DESC") String sortDir,
+            Authentication authentication) {
+        Long userId = (Long) authentication.getPrincipal();
+        Sort sort = sortDir.equalsIgnoreCase("ASC") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
+        Pageable pageable = PageRequest.of(page, size, sort);
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(CompactPayloads.ticketPage(ticketService.getTickets(userId, status, assignedTo, activeSince, pageable)));
+    }
+    
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<byte[]> getTicketSummaries(
+            @RequestParam(required = false) TicketStatus status,
+            @RequestParam(required = false) Long assignedTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime activeSince,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "DESC") String sortDir,
+            Authentication authentication) {
+        Long userId = (Long) authentication.getPrincipal();
+        Sort sort = sortDir.equalsIgnoreCase("ASC") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
+        Pageable pageable = PageRequest.of(page, size, sort);
+        byte[] body = listCache.get(ticketService.getOrganizationId(userId),
+                listQuery("summary", status, assignedTo, activeSince, pageable),
+                () -> ticketService.getTicketSummaries(userId, status, assignedTo, activeSince, pageable));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+    
+    // Only JSON pages are cached; binary clients get the same summaries negotiated per request
+    @GetMapping(params = "view=summary", produces = {MediaType.APPLICATION_CBOR_VALUE, CompactPayloads.SMILE_VALUE})
+    public ResponseEntity<Page<TicketSummaryResponse>> getTicketSummariesCompact(
+            @RequestParam(required = false) TicketStatus status,
+            @RequestParam(required = false) Long assignedTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime activeSince,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "DESC") String sortDir,
+            Authentication authentication) {
+        Long userId = (Long) authentication.getPrincipal();
+        Sort sort = sortDir.equalsIgnoreCase("ASC") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
+        Pageable pageable = PageRequest.of(page, size, sort);
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(ticketService.getTicketSummaries(userId, status, assignedTo, activeSince, pageable));
+    }
+    
+    @PostMapping("/batch-get")
+    public ResponseEntity<BatchTicketResponse> getTicketsByIds(
+            @Valid @RequestBody BatchGetTicketsRequest request,
+            Authentication authentication) {
+        Long userId = (Long) authentication.getPrincipal();
+        return ResponseEntity.ok(ticketService.getTicketsByIds(request, userId));
     }
     
     @GetMapping("/{ticketId}")
-    public ResponseEntity<TicketResponse> getTicket(
+    public ResponseEntity<byte[]> getTicket(
+            @PathVariable Long ticketId,
+            WebRequest webRequest,
+            Authentication authentication) {
+        Long userId = (Long) authentication.getPrincipal();
+        ResourceVersion version = ticketService.getTicketVersion(ticketId, userId);
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(readCoalescer.ticket(ticketId, userId, version));
+    }
+    
+    @GetMapping(value = "/{ticketId}", produces = {MediaType.APPLICATION_CBOR_VALUE, CompactPayloads.SMILE_VALUE})
+    public ResponseEntity<TicketResponse> getTicketCompact(
             @PathVariable Long ticketId,
+            WebRequest webRequest,
             Authentication authentication) {
         Long userId = (Long) authentication.getPrincipal();
-        return ResponseEntity.ok(ticketService.getTicketById(ticketId, userId));
+        ResourceVersion version = ticketService.getTicketVersion(ticketId, userId);
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(readCoalescer.ticketResponse(ticketId, userId, version));
     }
     
     @PutMapping("/{ticketId}/assign")
@@ -64,7 +193,7 @@ public class TicketController {
             @Valid @RequestBody AssignTicketRequest request,
             Authentication authentication) {
         Long userId = (Long) authentication.getPrincipal();
-        return ResponseEntity.ok(ticketService.assignTicket(ticketId, request, userId));
+        return ResponseEntity.ok(updateRetrier.execute(() -> ticketService.assignTicket(ticketId, request, userId)));
     }
     
     @PutMapping("/{ticketId}/status")
@@ -73,23 +202,70 @@ public class TicketController {
             @Valid @RequestBody UpdateTicketStatusRequest request,
             Authentication authentication) {
         Long userId = (Long) authentication.getPrincipal();
-        return ResponseEntity.ok(ticketService.updateStatus(ticketId, request, userId));
+        return ResponseEntity.ok(updateRetrier.execute(() -> ticketService.updateStatus(ticketId, request, userId)));
     }
     
     @PostMapping("/{ticketId}/messages")
     public ResponseEntity<MessageResponse> addMessage(
             @PathVariable Long ticketId,
             @Valid @RequestBody AddMessageRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication) {
         Long userId = (Long) authentication.getPrincipal();
-        return ResponseEntity.ok(ticketService.addMessage(ticketId, request, userId));
+        IdempotencyKey key = idempotencyService.keyFor(IdempotencyScope.ADD_MESSAGE, userId, idempotencyKey,
+                ticketId, request.getMessage(), request.getIsInternal());
+        return ResponseEntity.ok(idempotencyService.execute(key,
+                () -> ticketService.addMessage(ticketId, request, userId, key),
+                messageId -> ticketService.getMessage(ticketId, messageId, userId)));
     }
     
     @GetMapping("/{ticketId}/messages")
-    public ResponseEntity<List<MessageResponse>> getMessages(
+    public ResponseEntity<byte[]> getMessages(
+            @PathVariable Long ticketId,
+            @RequestParam(defaultValue = "ALL") MessageVisibility visibility,
+            WebRequest webRequest,
+            Authentication authentication) {
+        Long userId = (Long) authentication.getPrincipal();
+        ResourceVersion version = ticketService.getMessagesVersion(ticketId, visibility, userId);
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(readCoalescer.messages(ticketId, visibility, userId, version));
+    }
+    
+    @GetMapping(value = "/{ticketId}/messages",
+            produces = {MediaType.APPLICATION_CBOR_VALUE, CompactPayloads.SMILE_VALUE})
+    public ResponseEntity<CompactMessageThreadResponse> getMessagesCompact(
             @PathVariable Long ticketId,
+            @RequestParam(defaultValue = "ALL") MessageVisibility visibility,
+            WebRequest webRequest,
             Authentication authentication) {
         Long userId = (Long) authentication.getPrincipal();
-        return ResponseEntity.ok(ticketService.getMessages(ticketId, userId));
+        ResourceVersion version = ticketService.getMessagesVersion(ticketId, visibility, userId);
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(CompactPayloads.messageThread(ticketService.getMessages(ticketId, visibility, userId)));
+    }
+    
+    @GetMapping("/{ticketId}/history")
+    public ResponseEntity<List<TicketEventResponse>> getHistory(
+            @PathVariable Long ticketId,
+            Authentication authentication) {
+        Long userId = (Long) authentication.getPrincipal();
+        return ResponseEntity.ok(ticketService.getHistory(ticketId, userId));
+    }
+    
+    private static String listQuery(String view, TicketStatus status, Long assignedTo, LocalDateTime activeSince,
+                                    Pageable pageable) {
+        return view + "|" + status + "|" + assignedTo + "|" + activeSince + "|" + pageable.getPageNumber() + "|"
+                + pageable.getPageSize() + "|" + pageable.getSort();
     }
 }
@@ -0,0 +1,39 @@
+package com.dk.supportsystem.controller;
+
+import com.dk.supportsystem.dto.response.UserImportResponse;
+import com.dk.supportsystem.enums.UserImportFormat;
+import com.dk.supportsystem.service.UserImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/v1/users")
+@RequiredArgsConstructor
+public class UserController {
+    
+    private final UserImportService userImportService;
+    
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<UserImportResponse> importCsv(
+            InputStream body,
+            Authentication authentication) throws IOException {
+        Long userId = (Long) authentication.getPrincipal();
+        return ResponseEntity.ok(userImportService.importUsers(body, UserImportFormat.CSV, userId));
+    }
+    
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<UserImportResponse> importNdjson(
+            InputStream body,
+            Authentication authentication) throws IOException {
+        Long userId = (Long) authentication.getPrincipal();
+        return ResponseEntity.ok(userImportService.importUsers(body, UserImportFormat.NDJSON, userId));
+    }
+}
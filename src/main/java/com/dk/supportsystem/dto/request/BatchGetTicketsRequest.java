@@ -0,0 +1,16 @@
+package com.dk.supportsystem.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchGetTicketsRequest {
+    
+    @NotEmpty(message = "Ticket IDs are required")
+    @Size(max = 200, message = "Cannot request more than 200 tickets at once")
+    private List<@NotNull(message = "Ticket ID cannot be null") Long> ids;
+}
@@ -0,0 +1,25 @@
+package com.dk.supportsystem.dto.request;
+
+import com.dk.supportsystem.enums.MailSourceFormat;
+import com.dk.supportsystem.enums.TicketPriority;
+import com.dk.supportsystem.enums.TicketStatus;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class MailImportRequest {
+    
+    @NotBlank(message = "Source is required")
+    @Size(max = 1000, message = "Source cannot exceed 1000 characters")
+    private String source;
+    
+    @NotNull(message = "Format is required")
+    private MailSourceFormat format;
+    
+    // Historical backfills usually come in as CLOSED so they stay out of the open queues
+    private TicketStatus ticketStatus = TicketStatus.OPEN;
+    
+    private TicketPriority priority = TicketPriority.MEDIUM;
+}
@@ -0,0 +1,20 @@
+package com.dk.supportsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentResponse {
+    private Long id;
+    private String fileName;
+    private String contentType;
+    private Long sizeBytes;
+    private LocalDateTime createdAt;
+}
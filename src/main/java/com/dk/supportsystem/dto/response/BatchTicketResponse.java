@@ -0,0 +1,18 @@
+package com.dk.supportsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTicketResponse {
+    private List<TicketResponse> tickets;
+    private List<Long> missing;
+    private List<Long> forbidden;
+}
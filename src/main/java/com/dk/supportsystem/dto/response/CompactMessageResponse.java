@@ -0,0 +1,21 @@
+package com.dk.supportsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactMessageResponse {
+    private Long id;
+    private String message;
+    private Boolean isInternal;
+    private Long userId;
+    private Long createdAt;
+    private List<AttachmentResponse> attachments;
+}
@@ -0,0 +1,86 @@
+package com.dk.supportsystem.dto.response;
+
+import org.springframework.data.domain.Page;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shapes served to binary (CBOR/Smile) clients. Users appear once in a side table and are referenced by
+ * id, and timestamps are epoch milliseconds instead of ISO strings. The JSON representation is unchanged.
+ */
+public final class CompactPayloads {
+    
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+    
+    private CompactPayloads() {
+    }
+    
+    public static CompactTicketPageResponse ticketPage(Page<TicketResponse> page) {
+        Map<Long, UserResponse> users = new LinkedHashMap<>();
+        List<CompactTicketResponse> tickets = new ArrayList<>(page.getNumberOfElements());
+        for (TicketResponse ticket : page.getContent()) {
+            tickets.add(CompactTicketResponse.builder()
+                    .id(ticket.getId())
+                    .title(ticket.getTitle())
+                    .description(ticket.getDescription())
+                    .status(ticket.getStatus())
+                    .priority(ticket.getPriority())
+                    .createdById(reference(users, ticket.getCreatedBy()))
+                    .assignedToId(reference(users, ticket.getAssignedTo()))
+                    .createdAt(epochMillis(ticket.getCreatedAt()))
+                    .updatedAt(epochMillis(ticket.getUpdatedAt()))
+                    .resolvedAt(epochMillis(ticket.getResolvedAt()))
+                    .closedAt(epochMillis(ticket.getClosedAt()))
+                    .duplicateOfId(ticket.getDuplicateOfId())
+                    .lastMessageAt(epochMillis(ticket.getLastMessageAt()))
+                    .lastMessageById(ticket.getLastMessageById())
+                    .messageCount(ticket.getMessageCount())
+                    .publicMessageCount(ticket.getPublicMessageCount())
+                    .build());
+        }
+        return CompactTicketPageResponse.builder()
+                .users(new ArrayList<>(users.values()))
+                .tickets(tickets)
+                .page(page.getNumber())
+                .size(page.getSize())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages())
+                .build();
+    }
+    
+    public static CompactMessageThreadResponse messageThread(List<MessageResponse> thread) {
+        Map<Long, UserResponse> users = new LinkedHashMap<>();
+        List<CompactMessageResponse> messages = new ArrayList<>(thread.size());
+        for (MessageResponse message : thread) {
+            messages.add(CompactMessageResponse.builder()
+                    .id(message.getId())
+                    .message(message.getMessage())
+                    .isInternal(message.getIsInternal())
+                    .userId(reference(users, message.getUser()))
+                    .createdAt(epochMillis(message.getCreatedAt()))
+                    .attachments(message.getAttachments())
+                    .build());
+        }
+        return CompactMessageThreadResponse.builder()
+                .users(new ArrayList<>(users.values()))
+                .messages(messages)
+                .build();
+    }
+    
+    private static Long reference(Map<Long, UserResponse> users, UserResponse user) {
+        if (user == null) {
+            return null;
+        }
+        users.putIfAbsent(user.id(), user);
+        return user.id();
+    }
+    
+    private static Long epochMillis(LocalDateTime value) {
+        return value != null ? value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : null;
+    }
+}
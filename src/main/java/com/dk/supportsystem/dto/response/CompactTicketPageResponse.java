@@ -0,0 +1,21 @@
+package com.dk.supportsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactTicketPageResponse {
+    private List<UserResponse> users;
+    private List<CompactTicketResponse> tickets;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+}
@@ -0,0 +1,31 @@
+package com.dk.supportsystem.dto.response;
+
+import com.dk.supportsystem.enums.TicketPriority;
+import com.dk.supportsystem.enums.TicketStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactTicketResponse {
+    private Long id;
+    private String title;
+    private String description;
+    private TicketStatus status;
+    private TicketPriority priority;
+    private Long createdById;
+    private Long assignedToId;
+    private Long createdAt;
+    private Long updatedAt;
+    private Long resolvedAt;
+    private Long closedAt;
+    private Long duplicateOfId;
+    private Long lastMessageAt;
+    private Long lastMessageById;
+    private Integer messageCount;
+    private Integer publicMessageCount;
+}
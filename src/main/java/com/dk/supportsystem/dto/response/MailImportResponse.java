@@ -0,0 +1,31 @@
+package com.dk.supportsystem.dto.response;
+
+import com.dk.supportsystem.enums.MailImportStatus;
+import com.dk.supportsystem.enums.MailSourceFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MailImportResponse {
+    private Long id;
+    private String source;
+    private MailSourceFormat format;
+    private MailImportStatus status;
+    private String checkpointFile;
+    private long checkpointOffset;
+    private long messagesRead;
+    private long ticketsCreated;
+    private long repliesAdded;
+    private long skipped;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+}
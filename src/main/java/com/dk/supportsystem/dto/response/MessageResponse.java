@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -17,4 +18,5 @@ public class MessageResponse {
     private Boolean isInternal;
     private UserResponse user;
     private LocalDateTime createdAt;
+    private List<AttachmentResponse> attachments;
 }
@@ -0,0 +1,22 @@
+package com.dk.supportsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+@Data
+@AllArgsConstructor
+public class ResourceVersion {
+    private String etag;
+    private LocalDateTime lastModified;
+    
+    public static ResourceVersion weak(String tag, LocalDateTime lastModified) {
+        return new ResourceVersion("W/\"" + tag + "\"", lastModified);
+    }
+    
+    public long getLastModifiedMillis() {
+        return lastModified != null ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+}
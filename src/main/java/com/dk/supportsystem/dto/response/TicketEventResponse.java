@@ -0,0 +1,29 @@
+package com.dk.supportsystem.dto.response;
+
+import com.dk.supportsystem.enums.TicketEventType;
+import com.dk.supportsystem.enums.TicketPriority;
+import com.dk.supportsystem.enums.TicketStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketEventResponse {
+    private TicketEventType type;
+    private Long actorId;
+    private LocalDateTime occurredAt;
+    private TicketStatus fromStatus;
+    private TicketStatus toStatus;
+    private TicketPriority fromPriority;
+    private TicketPriority toPriority;
+    private Long fromAssigneeId;
+    private Long toAssigneeId;
+    private Long messageId;
+    private Boolean internal;
+}
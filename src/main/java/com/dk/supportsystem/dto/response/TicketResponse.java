@@ -25,4 +25,9 @@ public class TicketResponse {
     private LocalDateTime updatedAt;
     private LocalDateTime resolvedAt;
     private LocalDateTime closedAt;
+    private Long duplicateOfId;
+    private LocalDateTime lastMessageAt;
+    private Long lastMessageById;
+    private Integer messageCount;
+    private Integer publicMessageCount;
 }
@@ -0,0 +1,26 @@
+package com.dk.supportsystem.dto.response;
+
+import com.dk.supportsystem.enums.TicketPriority;
+import com.dk.supportsystem.enums.TicketStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketSummaryResponse {
+    private Long id;
+    private String title;
+    private TicketStatus status;
+    private TicketPriority priority;
+    private Long assigneeId;
+    private String assigneeName;
+    private LocalDateTime updatedAt;
+    private LocalDateTime lastMessageAt;
+    private Integer messageCount;
+}
@@ -1,19 +1,15 @@
 package com.dk.supportsystem.dto.response;
 
 import com.dk.supportsystem.enums.UserRole;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
 
-@Data
+/**
+ * Immutable, so one instance can be shared by every ticket and message of a response that references the user.
+ */
 @Builder
-@NoArgsConstructor
-@AllArgsConstructor
-public class UserResponse {
-    private Long id;
-    private String email;
-    private String fullName;
-    private UserRole role;
-    private String organizationName;
+public record UserResponse(Long id,
+                           String email,
+                           String fullName,
+                           UserRole role,
+                           String organizationName) {
 }
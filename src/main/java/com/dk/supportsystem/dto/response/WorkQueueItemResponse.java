@@ -0,0 +1,24 @@
+package com.dk.supportsystem.dto.response;
+
+import com.dk.supportsystem.enums.TicketPriority;
+import com.dk.supportsystem.enums.TicketStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkQueueItemResponse {
+    private Long ticketId;
+    private String title;
+    private TicketStatus status;
+    private TicketPriority priority;
+    private LocalDateTime deadline;
+    private boolean firstResponsePending;
+    private boolean overdue;
+}
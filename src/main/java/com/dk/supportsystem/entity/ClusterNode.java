@@ -0,0 +1,30 @@
+package com.dk.supportsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Liveness row of a running application node, refreshed by {@code ShardedJobRunner}. The number of
+ * live rows decides how many job shards each node may hold.
+ */
+@Entity
+@Table(name = "cluster_nodes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = false)
+public class ClusterNode {
+    
+    @Id
+    @Column(length = 36)
+    private String nodeId;
+    
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime heartbeatAt;
+}
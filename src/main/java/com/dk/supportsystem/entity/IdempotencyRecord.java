@@ -0,0 +1,47 @@
+package com.dk.supportsystem.entity;
+
+import com.dk.supportsystem.enums.IdempotencyScope;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_idempotency_keys_user_scope_key",
+                columnNames = {"user_id", "scope", "idempotency_key"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = false)
+public class IdempotencyRecord {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private IdempotencyScope scope;
+    
+    @Column(nullable = false)
+    private String idempotencyKey;
+    
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+    
+    @Column(nullable = false)
+    private Long resourceId;
+    
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
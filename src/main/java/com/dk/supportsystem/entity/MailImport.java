@@ -0,0 +1,94 @@
+package com.dk.supportsystem.entity;
+
+import com.dk.supportsystem.enums.MailImportStatus;
+import com.dk.supportsystem.enums.MailSourceFormat;
+import com.dk.supportsystem.enums.TicketPriority;
+import com.dk.supportsystem.enums.TicketStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A mailbox being turned into tickets. Progress is written by {@code MailIngestionService} through JDBC
+ * in the same transaction as each batch of tickets, so the checkpoint never runs ahead of the data.
+ */
+@Entity
+@Table(name = "mail_imports")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = false)
+public class MailImport {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long organizationId;
+    
+    @Column(nullable = false)
+    private Long requestedBy;
+    
+    @Column(nullable = false, length = 1000)
+    private String source;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private MailSourceFormat format;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private TicketStatus ticketStatus;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private TicketPriority priority;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private MailImportStatus status;
+    
+    @Column(length = 1000)
+    private String checkpointFile;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private Long checkpointOffset = 0L;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private Long messagesRead = 0L;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private Long ticketsCreated = 0L;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private Long repliesAdded = 0L;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private Long skipped = 0L;
+    
+    @Column(length = 1000)
+    private String error;
+    
+    // Bumped with every checkpoint; a writer that no longer matches it has lost the job shard
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+    
+    private LocalDateTime finishedAt;
+}
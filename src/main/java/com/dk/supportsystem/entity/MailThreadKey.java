@@ -0,0 +1,40 @@
+package com.dk.supportsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Message-ID of an ingested email and the ticket it ended up on. Replies find their ticket through the
+ * ids in In-Reply-To and References, and a message seen again after a restart is recognised and skipped.
+ * No foreign key to tickets: archived tickets leave their keys behind.
+ */
+@Entity
+@Table(name = "mail_message_ids", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_mail_message_ids_org_message", columnNames = {"organization_id", "message_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = false)
+public class MailThreadKey {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long organizationId;
+    
+    @Column(nullable = false, length = 998)
+    private String messageId;
+    
+    @Column(nullable = false)
+    private Long ticketId;
+    
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,34 @@
+package com.dk.supportsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Placement of an organization on a shard. Organizations without a row live on the default shard.
+ * Read and written by {@code ShardDirectory} through JDBC; mapped so the schema exists in development.
+ */
+@Entity
+@Table(name = "organization_shards")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = false)
+public class OrganizationShard {
+    
+    @Id
+    private Long organizationId;
+    
+    @Column(nullable = false, length = 64)
+    private String shard;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean moving = false;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -30,6 +30,10 @@ public class SlaConfig {
     @Builder.Default
     private Boolean firstResponseMet = false;
     
+    private LocalDateTime firstResponseAt;
+    
+    private Boolean firstResponseByAgent;
+    
     @Column(nullable = false)
     @Builder.Default
     private Boolean resolutionMet = false;
@@ -4,16 +4,23 @@ import com.dk.supportsystem.enums.TicketPriority;
 import com.dk.supportsystem.enums.TicketStatus;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tickets")
+@Table(name = "tickets", indexes = {
+        @Index(name = "idx_tickets_org_created_at", columnList = "organization_id, created_at desc"),
+        @Index(name = "idx_tickets_org_status_created_at", columnList = "organization_id, status, created_at desc"),
+        @Index(name = "idx_tickets_org_assigned_created_at", columnList = "organization_id, assigned_to, created_at desc"),
+        @Index(name = "idx_tickets_org_last_message_at", columnList = "organization_id, last_message_at desc")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @EqualsAndHashCode(callSuper = true)
+@DynamicUpdate
 public class Ticket extends BaseEntity {
     
     @Column(nullable = false, length = 500)
@@ -45,4 +52,35 @@ public class Ticket extends BaseEntity {
     private LocalDateTime resolvedAt;
     
     private LocalDateTime closedAt;
+    
+    // Plain id rather than an association: the original may be archived before its duplicates
+    private Long duplicateOfId;
+    
+    // Denormalized from ticket_messages and updated in place by addMessage; starts at the creation time
+    @Column(nullable = false)
+    private LocalDateTime lastMessageAt;
+    
+    private Long lastMessageBy;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer messageCount = 0;
+    
+    // The same for messages that are not internal notes, i.e. what a customer sees
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer publicMessageCount = 0;
+    
+    private LocalDateTime lastPublicMessageAt;
+    
+    // Attachments change a thread without adding a message, so they get their own counter for the thread ETag
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attachmentCount = 0;
+    
+    private LocalDateTime lastAttachmentAt;
+    
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
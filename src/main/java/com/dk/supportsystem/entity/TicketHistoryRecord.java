@@ -0,0 +1,34 @@
+package com.dk.supportsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "ticket_history", indexes = {
+        @Index(name = "idx_ticket_history_ticket", columnList = "ticket_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = false)
+public class TicketHistoryRecord {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long ticketId;
+    
+    @Column(nullable = false)
+    private Long organizationId;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false, columnDefinition = "BYTEA")
+    private byte[] events;
+}
@@ -6,7 +6,11 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "ticket_messages")
+@Table(name = "ticket_messages", indexes = {
+        @Index(name = "idx_ticket_messages_ticket_created_at", columnList = "ticket_id, created_at"),
+        @Index(name = "idx_ticket_messages_ticket_public_created_at", columnList = "ticket_id, created_at",
+                options = "WHERE is_internal = false")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,6 @@
+package com.dk.supportsystem.enums;
+
+public enum IdempotencyScope {
+    CREATE_TICKET,
+    ADD_MESSAGE
+}
@@ -0,0 +1,8 @@
+package com.dk.supportsystem.enums;
+
+public enum MailImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package com.dk.supportsystem.enums;
+
+public enum RequestPriority {
+    WRITE,
+    CRITICAL_READ,
+    BULK_READ
+}
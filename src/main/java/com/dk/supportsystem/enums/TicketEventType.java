@@ -0,0 +1,28 @@
+package com.dk.supportsystem.enums;
+
+public enum TicketEventType {
+    CREATED(1),
+    ASSIGNED(2),
+    STATUS_CHANGED(3),
+    PRIORITY_CHANGED(4),
+    MESSAGE_ADDED(5);
+    
+    private final int code;
+    
+    TicketEventType(int code) {
+        this.code = code;
+    }
+    
+    public int getCode() {
+        return code;
+    }
+    
+    public static TicketEventType fromCode(int code) {
+        for (TicketEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown ticket event type " + code);
+    }
+}
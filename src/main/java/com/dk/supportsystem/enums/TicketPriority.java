@@ -1,8 +1,31 @@
 package com.dk.supportsystem.enums;
 
+/**
+ * Codes are stored in ticket history and archive segments and must never change; they are independent
+ * of declaration order.
+ */
 public enum TicketPriority {
-    LOW,
-    MEDIUM,
-    HIGH,
-    URGENT
+    LOW(0),
+    MEDIUM(1),
+    HIGH(2),
+    URGENT(3);
+    
+    private final int code;
+    
+    TicketPriority(int code) {
+        this.code = code;
+    }
+    
+    public int getCode() {
+        return code;
+    }
+    
+    public static TicketPriority fromCode(int code) {
+        for (TicketPriority value : values()) {
+            if (value.code == code) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unknown ticket priority " + code);
+    }
 }
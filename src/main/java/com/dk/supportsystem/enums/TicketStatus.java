@@ -1,9 +1,32 @@
 package com.dk.supportsystem.enums;
 
+/**
+ * Codes are stored in ticket history and archive segments and must never change; they are independent
+ * of declaration order.
+ */
 public enum TicketStatus {
-    OPEN,
-    IN_PROGRESS,
-    WAITING,
-    RESOLVED,
-    CLOSED
+    OPEN(0),
+    IN_PROGRESS(1),
+    WAITING(2),
+    RESOLVED(3),
+    CLOSED(4);
+    
+    private final int code;
+    
+    TicketStatus(int code) {
+        this.code = code;
+    }
+    
+    public int getCode() {
+        return code;
+    }
+    
+    public static TicketStatus fromCode(int code) {
+        for (TicketStatus value : values()) {
+            if (value.code == code) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unknown ticket status " + code);
+    }
 }
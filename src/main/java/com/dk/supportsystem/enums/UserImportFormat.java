@@ -0,0 +1,6 @@
+package com.dk.supportsystem.enums;
+
+public enum UserImportFormat {
+    CSV,
+    NDJSON
+}
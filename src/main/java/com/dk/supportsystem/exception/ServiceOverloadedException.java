@@ -0,0 +1,7 @@
+package com.dk.supportsystem.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
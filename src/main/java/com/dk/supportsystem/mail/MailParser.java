@@ -0,0 +1,391 @@
+package com.dk.supportsystem.mail;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Just enough RFC 5322/MIME to turn a message into a ticket or reply: headers with RFC 2047 encoded
+ * words, base64 and quoted-printable bodies, declared charsets, and the first text part of a multipart
+ * message (text/plain preferred, HTML with tags stripped otherwise). Attachments are ignored.
+ */
+public final class MailParser {
+    
+    private static final Pattern ANGLE_ID = Pattern.compile("<([^<>\\s]+)>");
+    private static final Pattern ENCODED_WORD = Pattern.compile("=\\?([^?]+)\\?([bBqQ])\\?([^?]*)\\?=");
+    private static final Pattern BETWEEN_ENCODED_WORDS = Pattern.compile("(\\?=)\\s+(=\\?)");
+    private static final Pattern NAME_ADDRESS = Pattern.compile("^\\s*\"?(.*?)\"?\\s*<([^>]+)>\\s*$");
+    private static final Pattern ADDRESS_COMMENT = Pattern.compile("^\\s*(\\S+@\\S+)\\s*\\((.*)\\)\\s*$");
+    private static final Pattern COMMENT = Pattern.compile("\\([^)]*\\)");
+    private static final Pattern HTML_BREAK = Pattern.compile("(?i)<br\\s*/?>|</p>|</div>|</tr>");
+    private static final Pattern HTML_TAG = Pattern.compile("(?s)<[^>]*>");
+    private static final int MAX_DEPTH = 8;
+    private static final int MAX_REFERENCES = 20;
+    
+    private MailParser() {
+    }
+    
+    public static ParsedMail parse(byte[] raw) {
+        Part message = Part.of(raw);
+        
+        String messageId = firstId(message.header("message-id"));
+        if (messageId == null) {
+            // Deterministic, so a re-read after a restart still recognises the message
+            messageId = "sha256:" + sha256(raw);
+        }
+        
+        List<String> references = new ArrayList<>();
+        String inReplyTo = firstId(message.header("in-reply-to"));
+        if (inReplyTo != null) {
+            references.add(inReplyTo);
+        }
+        List<String> chain = allIds(message.header("references"));
+        for (int i = chain.size() - 1; i >= 0 && references.size() < MAX_REFERENCES; i--) {
+            if (!references.contains(chain.get(i))) {
+                references.add(chain.get(i));
+            }
+        }
+        
+        String[] from = parseAddress(decodeWords(message.header("from")));
+        String body = textOf(message, 0);
+        return new ParsedMail(messageId, references, from[0], from[1],
+                decodeWords(message.header("subject")), parseDate(message.header("date")),
+                body != null ? body.strip() : "");
+    }
+    
+    private static String textOf(Part part, int depth) {
+        String type = part.contentType();
+        if (type.startsWith("multipart/") && depth < MAX_DEPTH) {
+            String boundary = part.parameter("content-type", "boundary");
+            if (boundary == null) {
+                return null;
+            }
+            String html = null;
+            for (Part child : part.children(boundary)) {
+                if ("attachment".equals(child.disposition())) {
+                    continue;
+                }
+                String text = textOf(child, depth + 1);
+                if (text == null) {
+                    continue;
+                }
+                if (!child.contentType().equals("text/html")) {
+                    return text;
+                }
+                if (html == null) {
+                    html = text;
+                }
+            }
+            return html;
+        }
+        if (type.equals("text/plain")) {
+            return part.decodedText();
+        }
+        if (type.equals("text/html")) {
+            String text = HTML_BREAK.matcher(part.decodedText()).replaceAll("\n");
+            return HTML_TAG.matcher(text).replaceAll("")
+                    .replace("&nbsp;", " ").replace("&lt;", "<").replace("&gt;", ">")
+                    .replace("&quot;", "\"").replace("&amp;", "&");
+        }
+        return null;
+    }
+    
+    private static String firstId(String value) {
+        if (value == null) {
+            return null;
+        }
+        Matcher matcher = ANGLE_ID.matcher(value);
+        if (matcher.find()) {
+            return matcher.group(1);
+        }
+        String bare = value.strip();
+        return bare.isEmpty() || bare.contains(" ") ? null : bare;
+    }
+    
+    private static List<String> allIds(String value) {
+        List<String> ids = new ArrayList<>();
+        if (value != null) {
+            Matcher matcher = ANGLE_ID.matcher(value);
+            while (matcher.find()) {
+                ids.add(matcher.group(1));
+            }
+        }
+        return ids;
+    }
+    
+    // [address, display name]
+    private static String[] parseAddress(String value) {
+        if (value == null || value.isBlank()) {
+            return new String[]{null, null};
+        }
+        Matcher named = NAME_ADDRESS.matcher(value);
+        if (named.matches()) {
+            String name = named.group(1).strip();
+            return new String[]{normalizeAddress(named.group(2)), name.isEmpty() ? null : name};
+        }
+        Matcher commented = ADDRESS_COMMENT.matcher(value);
+        if (commented.matches()) {
+            return new String[]{normalizeAddress(commented.group(1)), commented.group(2).strip()};
+        }
+        return new String[]{normalizeAddress(value), null};
+    }
+    
+    private static String normalizeAddress(String address) {
+        String trimmed = address.strip().toLowerCase(Locale.ROOT);
+        return trimmed.contains("@") ? trimmed : null;
+    }
+    
+    private static LocalDateTime parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        String cleaned = COMMENT.matcher(value).replaceAll("").strip().replaceAll("\\s+", " ");
+        try {
+            return ZonedDateTime.parse(cleaned, DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .withZoneSameInstant(ZoneId.systemDefault())
+                    .toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+    
+    static String decodeWords(String value) {
+        if (value == null) {
+            return null;
+        }
+        String joined = BETWEEN_ENCODED_WORDS.matcher(value).replaceAll("$1$2");
+        Matcher matcher = ENCODED_WORD.matcher(joined);
+        StringBuilder out = new StringBuilder();
+        while (matcher.find()) {
+            Charset charset = charset(matcher.group(1));
+            String text = matcher.group(3);
+            byte[] bytes = matcher.group(2).equalsIgnoreCase("B")
+                    ? decodeBase64(text.getBytes(StandardCharsets.US_ASCII))
+                    : decodeQuotedPrintable(text.replace('_', ' ').getBytes(StandardCharsets.US_ASCII));
+            matcher.appendReplacement(out, Matcher.quoteReplacement(new String(bytes, charset)));
+        }
+        matcher.appendTail(out);
+        return out.toString().strip();
+    }
+    
+    static byte[] decodeQuotedPrintable(byte[] input) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(input.length);
+        for (int i = 0; i < input.length; i++) {
+            byte b = input[i];
+            if (b != '=') {
+                out.write(b);
+                continue;
+            }
+            // Soft line break
+            if (i + 1 < input.length && input[i + 1] == '\n') {
+                i++;
+                continue;
+            }
+            if (i + 2 < input.length && input[i + 1] == '\r' && input[i + 2] == '\n') {
+                i += 2;
+                continue;
+            }
+            int high = i + 2 < input.length ? Character.digit(input[i + 1], 16) : -1;
+            int low = high >= 0 ? Character.digit(input[i + 2], 16) : -1;
+            if (low >= 0) {
+                out.write(high << 4 | low);
+                i += 2;
+            } else {
+                out.write(b);
+            }
+        }
+        return out.toByteArray();
+    }
+    
+    private static byte[] decodeBase64(byte[] input) {
+        try {
+            return Base64.getMimeDecoder().decode(input);
+        } catch (IllegalArgumentException e) {
+            return new byte[0];
+        }
+    }
+    
+    private static Charset charset(String name) {
+        if (name == null) {
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            return Charset.forName(name.strip().replace("\"", ""));
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+    
+    private static String sha256(byte[] raw) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(raw));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * A message or body part: unfolded headers (first occurrence wins) and the raw body bytes.
+     */
+    private record Part(Map<String, String> headers, byte[] raw, int bodyStart, int bodyEnd) {
+        
+        static Part of(byte[] raw) {
+            return of(raw, 0, raw.length);
+        }
+        
+        static Part of(byte[] raw, int from, int to) {
+            Map<String, String> headers = new LinkedHashMap<>();
+            int pos = from;
+            String name = null;
+            StringBuilder value = new StringBuilder();
+            while (pos < to) {
+                int end = pos;
+                while (end < to && raw[end] != '\n') {
+                    end++;
+                }
+                int lineEnd = end > pos && raw[end - 1] == '\r' ? end - 1 : end;
+                int next = Math.min(end + 1, to);
+                if (lineEnd == pos) {
+                    pos = next;
+                    break;
+                }
+                String line = new String(raw, pos, lineEnd - pos, StandardCharsets.UTF_8);
+                if ((line.charAt(0) == ' ' || line.charAt(0) == '\t') && name != null) {
+                    value.append(' ').append(line.strip());
+                } else {
+                    if (name != null) {
+                        headers.putIfAbsent(name, value.toString().strip());
+                    }
+                    int colon = line.indexOf(':');
+                    name = colon > 0 ? line.substring(0, colon).strip().toLowerCase(Locale.ROOT) : null;
+                    value.setLength(0);
+                    if (name != null) {
+                        value.append(line.substring(colon + 1));
+                    }
+                }
+                pos = next;
+            }
+            if (name != null) {
+                headers.putIfAbsent(name, value.toString().strip());
+            }
+            return new Part(headers, raw, pos, to);
+        }
+        
+        String header(String name) {
+            return headers.get(name);
+        }
+        
+        String contentType() {
+            String value = headers.get("content-type");
+            if (value == null) {
+                return "text/plain";
+            }
+            int semicolon = value.indexOf(';');
+            return (semicolon >= 0 ? value.substring(0, semicolon) : value).strip().toLowerCase(Locale.ROOT);
+        }
+        
+        String disposition() {
+            String value = headers.get("content-disposition");
+            if (value == null) {
+                return null;
+            }
+            int semicolon = value.indexOf(';');
+            return (semicolon >= 0 ? value.substring(0, semicolon) : value).strip().toLowerCase(Locale.ROOT);
+        }
+        
+        String parameter(String header, String parameter) {
+            String value = headers.get(header);
+            if (value == null) {
+                return null;
+            }
+            for (String part : value.split(";")) {
+                int equals = part.indexOf('=');
+                if (equals > 0 && part.substring(0, equals).strip().equalsIgnoreCase(parameter)) {
+                    String result = part.substring(equals + 1).strip();
+                    if (result.length() >= 2 && result.startsWith("\"") && result.endsWith("\"")) {
+                        result = result.substring(1, result.length() - 1);
+                    }
+                    return result;
+                }
+            }
+            return null;
+        }
+        
+        String decodedText() {
+            byte[] body = Arrays.copyOfRange(raw, bodyStart, bodyEnd);
+            String encoding = headers.getOrDefault("content-transfer-encoding", "7bit").strip().toLowerCase(Locale.ROOT);
+            byte[] decoded = switch (encoding) {
+                case "base64" -> decodeBase64(body);
+                case "quoted-printable" -> decodeQuotedPrintable(body);
+                default -> body;
+            };
+            return new String(decoded, charset(parameter("content-type", "charset")));
+        }
+        
+        List<Part> children(String boundary) {
+            byte[] delimiter = ("--" + boundary).getBytes(StandardCharsets.US_ASCII);
+            List<Part> children = new ArrayList<>();
+            int partStart = -1;
+            int pos = bodyStart;
+            while (pos < bodyEnd) {
+                int end = pos;
+                while (end < bodyEnd && raw[end] != '\n') {
+                    end++;
+                }
+                if (startsWith(pos, end, delimiter)) {
+                    if (partStart >= 0) {
+                        // The line break before the delimiter belongs to the delimiter
+                        int partEnd = pos;
+                        if (partEnd > partStart && raw[partEnd - 1] == '\n') {
+                            partEnd--;
+                        }
+                        if (partEnd > partStart && raw[partEnd - 1] == '\r') {
+                            partEnd--;
+                        }
+                        children.add(Part.of(raw, partStart, partEnd));
+                    }
+                    boolean closing = end - pos >= delimiter.length + 2
+                            && raw[pos + delimiter.length] == '-' && raw[pos + delimiter.length + 1] == '-';
+                    if (closing) {
+                        return children;
+                    }
+                    partStart = Math.min(end + 1, bodyEnd);
+                }
+                pos = end + 1;
+            }
+            if (partStart >= 0 && partStart < bodyEnd) {
+                children.add(Part.of(raw, partStart, bodyEnd));
+            }
+            return children;
+        }
+        
+        private boolean startsWith(int from, int to, byte[] prefix) {
+            if (to - from < prefix.length) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length; i++) {
+                if (raw[from + i] != prefix[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
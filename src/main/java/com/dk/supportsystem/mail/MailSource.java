@@ -0,0 +1,27 @@
+package com.dk.supportsystem.mail;
+
+import com.dk.supportsystem.enums.MailSourceFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Streams raw messages from a mailbox on local disk, one at a time and in a stable order, so that a
+ * checkpoint taken from the last {@link RawMail} can resume the source after a restart.
+ */
+public interface MailSource extends Closeable {
+    
+    /**
+     * Returns the next message, or {@code null} once the source is exhausted.
+     */
+    RawMail next() throws IOException;
+    
+    static MailSource open(MailSourceFormat format, Path path, String checkpointFile, long checkpointOffset,
+                           int maxMessageBytes, int maildirWindow) throws IOException {
+        return switch (format) {
+            case MBOX -> new MboxSource(path, checkpointFile, checkpointOffset, maxMessageBytes);
+            case MAILDIR -> new MaildirSource(path, checkpointFile, maxMessageBytes, maildirWindow);
+        };
+    }
+}
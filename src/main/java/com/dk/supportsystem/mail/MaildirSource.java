@@ -0,0 +1,107 @@
+package com.dk.supportsystem.mail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Reads the {@code cur} and {@code new} folders of a Maildir in file name order. Folders can hold millions
+ * of files, so names are never listed in full: each pass over the directory keeps only the next
+ * {@code window} names after the last one handed out, in a bounded heap. The checkpoint is the last
+ * message's {@code folder/name}; the offset is unused.
+ */
+final class MaildirSource implements MailSource {
+    
+    private static final List<String> FOLDERS = List.of("cur", "new");
+    
+    private final Path root;
+    private final int maxMessageBytes;
+    private final int window;
+    
+    private int folderIndex;
+    private String lastName;
+    private Iterator<String> names = Collections.emptyIterator();
+    private boolean windowFull;
+    
+    MaildirSource(Path root, String checkpointFile, int maxMessageBytes, int window) throws IOException {
+        if (!Files.isDirectory(root)) {
+            throw new NoSuchFileException(root.toString());
+        }
+        this.root = root;
+        this.maxMessageBytes = maxMessageBytes;
+        this.window = window;
+        
+        if (checkpointFile != null) {
+            int slash = checkpointFile.indexOf('/');
+            folderIndex = Math.max(FOLDERS.indexOf(checkpointFile.substring(0, slash)), 0);
+            lastName = checkpointFile.substring(slash + 1);
+        }
+        // Nothing loaded yet, so the first call fills a window for the starting folder
+        windowFull = true;
+    }
+    
+    @Override
+    public RawMail next() throws IOException {
+        while (folderIndex < FOLDERS.size()) {
+            while (names.hasNext()) {
+                String name = names.next();
+                lastName = name;
+                String file = FOLDERS.get(folderIndex) + "/" + name;
+                try (InputStream in = Files.newInputStream(root.resolve(file))) {
+                    byte[] content = in.readNBytes(maxMessageBytes);
+                    boolean truncated = in.read() >= 0;
+                    return new RawMail(content, truncated, file, 0);
+                } catch (NoSuchFileException e) {
+                    // Moved from new to cur by a mail client since the directory was scanned
+                }
+            }
+            if (windowFull) {
+                loadWindow();
+            } else {
+                folderIndex++;
+                lastName = null;
+                windowFull = true;
+            }
+        }
+        return null;
+    }
+    
+    @Override
+    public void close() {
+    }
+    
+    private void loadWindow() throws IOException {
+        Path folder = root.resolve(FOLDERS.get(folderIndex));
+        // Largest name on top, so the heap keeps the smallest names after lastName
+        PriorityQueue<String> next = new PriorityQueue<>(Comparator.reverseOrder());
+        boolean evicted = false;
+        if (Files.isDirectory(folder)) {
+            try (DirectoryStream<Path> listing = Files.newDirectoryStream(folder)) {
+                for (Path path : listing) {
+                    String name = path.getFileName().toString();
+                    if (name.startsWith(".") || lastName != null && name.compareTo(lastName) <= 0) {
+                        continue;
+                    }
+                    next.add(name);
+                    if (next.size() > window) {
+                        next.poll();
+                        evicted = true;
+                    }
+                }
+            }
+        }
+        List<String> sorted = new ArrayList<>(next);
+        Collections.sort(sorted);
+        names = sorted.iterator();
+        windowFull = evicted;
+    }
+}
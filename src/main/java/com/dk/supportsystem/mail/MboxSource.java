@@ -0,0 +1,212 @@
+package com.dk.supportsystem.mail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reads an mbox file, or every mbox file of a directory in name order, without loading whole files.
+ * Messages start at a {@code From } line at the start of the file or after a blank line; mboxrd quoting
+ * ({@code >From }) is undone. The checkpoint offset is the byte position of the next message's
+ * {@code From } line, so a resumed source seeks straight to it.
+ */
+final class MboxSource implements MailSource {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final Path root;
+    private final List<Path> files;
+    private final int maxMessageBytes;
+    
+    private int fileIndex;
+    private long startOffset;
+    private String currentName;
+    private InputStream in;
+    private long position;
+    
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPos;
+    private int bufferLen;
+    private byte[] line = new byte[1024];
+    private int lineLength;
+    private boolean lineOverflow;
+    private boolean pendingSeparator;
+    private boolean previousBlank;
+    
+    MboxSource(Path path, String checkpointFile, long checkpointOffset, int maxMessageBytes) throws IOException {
+        if (Files.isDirectory(path)) {
+            root = path;
+            try (Stream<Path> listing = Files.list(path)) {
+                files = listing.filter(Files::isRegularFile)
+                        .filter(file -> !file.getFileName().toString().startsWith("."))
+                        .sorted()
+                        .toList();
+            }
+        } else if (Files.isRegularFile(path)) {
+            root = path.getParent();
+            files = List.of(path);
+        } else {
+            throw new NoSuchFileException(path.toString());
+        }
+        this.maxMessageBytes = maxMessageBytes;
+        
+        int start = 0;
+        if (checkpointFile != null) {
+            while (start < files.size() && nameOf(files.get(start)).compareTo(checkpointFile) < 0) {
+                start++;
+            }
+            if (start < files.size() && nameOf(files.get(start)).equals(checkpointFile)) {
+                startOffset = checkpointOffset;
+            }
+        }
+        fileIndex = start - 1;
+    }
+    
+    @Override
+    public RawMail next() throws IOException {
+        while (true) {
+            if (in == null && !openNext()) {
+                return null;
+            }
+            RawMail mail = readMessage();
+            if (mail != null) {
+                return mail;
+            }
+            closeCurrent();
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        closeCurrent();
+    }
+    
+    private boolean openNext() throws IOException {
+        if (++fileIndex >= files.size()) {
+            return false;
+        }
+        Path file = files.get(fileIndex);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        channel.position(startOffset);
+        in = Channels.newInputStream(channel);
+        position = startOffset;
+        startOffset = 0;
+        currentName = nameOf(file);
+        bufferPos = 0;
+        bufferLen = 0;
+        pendingSeparator = false;
+        previousBlank = false;
+        return true;
+    }
+    
+    private void closeCurrent() throws IOException {
+        if (in != null) {
+            in.close();
+            in = null;
+        }
+    }
+    
+    private RawMail readMessage() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        boolean started = pendingSeparator;
+        boolean truncated = false;
+        pendingSeparator = false;
+        
+        while (true) {
+            long lineStart = position;
+            if (!readLine()) {
+                break;
+            }
+            if (isFromLine(0) && (!started || previousBlank)) {
+                previousBlank = false;
+                if (started) {
+                    pendingSeparator = true;
+                    return new RawMail(out.toByteArray(), truncated, currentName, lineStart);
+                }
+                started = true;
+                continue;
+            }
+            
+            // A file without a leading From line is read as a single message
+            started = true;
+            previousBlank = lineLength == 1 && line[0] == '\n'
+                    || lineLength == 2 && line[0] == '\r' && line[1] == '\n';
+            int skip = lineLength > 0 && line[0] == '>' && isEscapedFromLine() ? 1 : 0;
+            if (truncated || lineOverflow || out.size() + lineLength - skip > maxMessageBytes) {
+                truncated = true;
+            } else {
+                out.write(line, skip, lineLength - skip);
+            }
+        }
+        return started ? new RawMail(out.toByteArray(), truncated, currentName, position) : null;
+    }
+    
+    private boolean isFromLine(int from) {
+        return lineLength >= from + 5 && line[from] == 'F' && line[from + 1] == 'r' && line[from + 2] == 'o'
+                && line[from + 3] == 'm' && line[from + 4] == ' ';
+    }
+    
+    private boolean isEscapedFromLine() {
+        int quotes = 0;
+        while (quotes < lineLength && line[quotes] == '>') {
+            quotes++;
+        }
+        return isFromLine(quotes);
+    }
+    
+    private boolean readLine() throws IOException {
+        lineLength = 0;
+        lineOverflow = false;
+        boolean any = false;
+        while (true) {
+            if (bufferPos == bufferLen) {
+                bufferLen = Math.max(in.read(buffer), 0);
+                bufferPos = 0;
+                if (bufferLen == 0) {
+                    return any;
+                }
+            }
+            int end = bufferPos;
+            while (end < bufferLen && buffer[end] != '\n') {
+                end++;
+            }
+            boolean complete = end < bufferLen;
+            if (complete) {
+                end++;
+            }
+            append(bufferPos, end - bufferPos);
+            position += end - bufferPos;
+            bufferPos = end;
+            any = true;
+            if (complete) {
+                return true;
+            }
+        }
+    }
+    
+    private void append(int from, int length) {
+        int room = maxMessageBytes - lineLength;
+        if (length > room) {
+            lineOverflow = true;
+            length = Math.max(room, 0);
+        }
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.min(Math.max(line.length * 2, lineLength + length), maxMessageBytes));
+        }
+        System.arraycopy(buffer, from, line, lineLength, length);
+        lineLength += length;
+    }
+    
+    private String nameOf(Path file) {
+        return root.relativize(file).toString();
+    }
+}
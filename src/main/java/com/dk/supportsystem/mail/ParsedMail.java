@@ -0,0 +1,17 @@
+package com.dk.supportsystem.mail;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The parts of a message that ingestion needs. {@code references} holds the parent ids from
+ * {@code In-Reply-To} and {@code References}, closest parent first.
+ */
+public record ParsedMail(String messageId,
+                         List<String> references,
+                         String fromAddress,
+                         String fromName,
+                         String subject,
+                         LocalDateTime date,
+                         String body) {
+}
@@ -0,0 +1,8 @@
+package com.dk.supportsystem.mail;
+
+/**
+ * One message as read from disk, plus the checkpoint that marks it as consumed: resuming a source at
+ * {@code (file, offset)} continues with the message after this one.
+ */
+public record RawMail(byte[] content, boolean truncated, String file, long offset) {
+}
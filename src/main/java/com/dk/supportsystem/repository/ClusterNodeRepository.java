@@ -0,0 +1,26 @@
+package com.dk.supportsystem.repository;
+
+import com.dk.supportsystem.entity.ClusterNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ClusterNodeRepository extends JpaRepository<ClusterNode, String> {
+    
+    @Modifying
+    @Query(value = "INSERT INTO cluster_nodes (node_id, started_at, heartbeat_at) VALUES (:nodeId, :now, :now) " +
+                   "ON CONFLICT (node_id) DO UPDATE SET heartbeat_at = EXCLUDED.heartbeat_at", nativeQuery = true)
+    int heartbeat(@Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+    
+    @Query("SELECT COUNT(n) FROM ClusterNode n WHERE n.heartbeatAt >= :since")
+    long countAlive(@Param("since") LocalDateTime since);
+    
+    @Modifying
+    @Query("DELETE FROM ClusterNode n WHERE n.heartbeatAt < :before")
+    int deleteStale(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,29 @@
+package com.dk.supportsystem.repository;
+
+import com.dk.supportsystem.entity.IdempotencyRecord;
+import com.dk.supportsystem.enums.IdempotencyScope;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    Optional<IdempotencyRecord> findByUserIdAndScopeAndIdempotencyKey(Long userId, IdempotencyScope scope,
+                                                                      String idempotencyKey);
+    
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now AND r.userId NOT IN " +
+           "(SELECT u.id FROM User u WHERE u.organization.id IN :excluded)")
+    int deleteExpiredExcluding(@Param("now") LocalDateTime now,
+                               @Param("excluded") Collection<Long> excludedOrganizationIds);
+}
@@ -0,0 +1,23 @@
+package com.dk.supportsystem.repository;
+
+import com.dk.supportsystem.entity.MailImport;
+import com.dk.supportsystem.enums.MailImportStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MailImportRepository extends JpaRepository<MailImport, Long> {
+    
+    Optional<MailImport> findByIdAndOrganizationId(Long id, Long organizationId);
+    
+    @Query("SELECT m.id FROM MailImport m WHERE m.status IN :statuses AND MOD(m.id, :shardCount) = :shard ORDER BY m.id")
+    List<Long> findIdsToRun(@Param("statuses") Collection<MailImportStatus> statuses,
+                            @Param("shard") int shard,
+                            @Param("shardCount") int shardCount);
+}
@@ -0,0 +1,25 @@
+package com.dk.supportsystem.repository;
+
+import com.dk.supportsystem.entity.MailThreadKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MailThreadKeyRepository extends JpaRepository<MailThreadKey, Long> {
+    
+    @Query("SELECT k.messageId AS messageId, k.ticketId AS ticketId FROM MailThreadKey k " +
+           "WHERE k.organizationId = :orgId AND k.messageId IN :messageIds")
+    List<ThreadKeyView> findByOrganizationIdAndMessageIdIn(@Param("orgId") Long orgId,
+                                                           @Param("messageIds") Collection<String> messageIds);
+    
+    interface ThreadKeyView {
+        String getMessageId();
+        
+        Long getTicketId();
+    }
+}
@@ -0,0 +1,24 @@
+package com.dk.supportsystem.repository;
+
+import com.dk.supportsystem.entity.MessageAttachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MessageAttachmentRepository extends JpaRepository<MessageAttachment, Long> {
+    List<MessageAttachment> findByMessageIdInOrderByIdAsc(Collection<Long> messageIds);
+    
+    Optional<MessageAttachment> findByIdAndMessageTicketId(Long id, Long ticketId);
+    
+    @Modifying
+    @Query("DELETE FROM MessageAttachment a WHERE a.message.id IN " +
+           "(SELECT m.id FROM TicketMessage m WHERE m.ticket.id IN :ticketIds)")
+    int deleteByTicketIdIn(@Param("ticketIds") Collection<Long> ticketIds);
+}
@@ -1,12 +1,50 @@
 package com.dk.supportsystem.repository;
 
 import com.dk.supportsystem.entity.SlaConfig;
+import com.dk.supportsystem.enums.TicketStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SlaConfigRepository extends JpaRepository<SlaConfig, Long> {
     Optional<SlaConfig> findByTicketId(Long ticketId);
+    
+    List<SlaConfig> findByTicketIdIn(Collection<Long> ticketIds);
+    
+    @Modifying
+    @Query("UPDATE SlaConfig s SET s.firstResponseMet = true, s.firstResponseAt = :respondedAt, " +
+           "s.firstResponseByAgent = :byAgent WHERE s.ticket.id = :ticketId AND s.firstResponseMet = false")
+    int markFirstResponse(@Param("ticketId") Long ticketId,
+                          @Param("respondedAt") LocalDateTime respondedAt,
+                          @Param("byAgent") boolean byAgent);
+    
+    @Modifying
+    @Query("UPDATE SlaConfig s SET s.resolutionMet = true WHERE s.resolutionMet = false AND EXISTS (" +
+           "SELECT t.id FROM Ticket t WHERE t = s.ticket AND t.status IN :statuses " +
+           "AND t.resolvedAt <= s.resolutionDeadline AND MOD(t.organization.id, :shardCount) = :shard)")
+    int markResolutionMet(@Param("statuses") Collection<TicketStatus> statuses,
+                          @Param("shard") int shard,
+                          @Param("shardCount") int shardCount);
+    
+    @Modifying
+    @Query("UPDATE SlaConfig s SET s.resolutionMet = true WHERE s.resolutionMet = false AND EXISTS (" +
+           "SELECT t.id FROM Ticket t WHERE t = s.ticket AND t.status IN :statuses " +
+           "AND t.resolvedAt <= s.resolutionDeadline AND MOD(t.organization.id, :shardCount) = :shard " +
+           "AND t.organization.id NOT IN :excluded)")
+    int markResolutionMetExcluding(@Param("statuses") Collection<TicketStatus> statuses,
+                                   @Param("shard") int shard,
+                                   @Param("shardCount") int shardCount,
+                                   @Param("excluded") Collection<Long> excludedOrganizationIds);
+    
+    @Modifying
+    @Query("DELETE FROM SlaConfig s WHERE s.ticket.id IN :ticketIds")
+    int deleteByTicketIdIn(@Param("ticketIds") Collection<Long> ticketIds);
 }
@@ -0,0 +1,12 @@
+package com.dk.supportsystem.repository;
+
+import com.dk.supportsystem.entity.TicketHistoryRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TicketHistoryRepository extends JpaRepository<TicketHistoryRecord, Long> {
+    List<TicketHistoryRecord> findByTicketIdOrderByIdAsc(Long ticketId);
+}
@@ -2,11 +2,26 @@ package com.dk.supportsystem.repository;
 
 import com.dk.supportsystem.entity.TicketMessage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface TicketMessageRepository extends JpaRepository<TicketMessage, Long> {
     List<TicketMessage> findByTicketIdOrderByCreatedAtAsc(Long ticketId);
+    
+    // Literal predicate so the planner can prove the partial index applies, even for generic plans
+    @Query("SELECT m FROM TicketMessage m WHERE m.ticket.id = :ticketId AND m.isInternal = false " +
+           "ORDER BY m.createdAt")
+    List<TicketMessage> findPublicByTicketIdOrderByCreatedAtAsc(@Param("ticketId") Long ticketId);
+    
+    List<TicketMessage> findByTicketIdInOrderByIdAsc(Collection<Long> ticketIds);
+    
+    @Modifying
+    @Query("DELETE FROM TicketMessage m WHERE m.ticket.id IN :ticketIds")
+    int deleteByTicketIdIn(@Param("ticketIds") Collection<Long> ticketIds);
 }
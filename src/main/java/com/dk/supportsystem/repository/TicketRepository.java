@@ -1,28 +1,292 @@
 package com.dk.supportsystem.repository;
 
+import com.dk.supportsystem.dto.response.TicketSummaryResponse;
 import com.dk.supportsystem.entity.Ticket;
+import com.dk.supportsystem.enums.TicketPriority;
 import com.dk.supportsystem.enums.TicketStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
     
+    String SUMMARY_SELECT = "SELECT new com.dk.supportsystem.dto.response.TicketSummaryResponse(" +
+            "t.id, t.title, t.status, t.priority, a.id, a.fullName, t.updatedAt, t.lastMessageAt, t.messageCount) " +
+            "FROM Ticket t LEFT JOIN t.assignedTo a ";
+    
     Page<Ticket> findByOrganizationId(Long organizationId, Pageable pageable);
     
     Page<Ticket> findByOrganizationIdAndStatus(Long organizationId, TicketStatus status, Pageable pageable);
     
     Page<Ticket> findByAssignedToId(Long assignedToId, Pageable pageable);
     
-    @Query("SELECT t FROM Ticket t WHERE t.organization.id = :orgId " +
-           "AND (:status IS NULL OR t.status = :status) " +
-           "AND (:assignedTo IS NULL OR t.assignedTo.id = :assignedTo)")
-    Page<Ticket> findByFilters(@Param("orgId") Long orgId,
-                                @Param("status") TicketStatus status,
-                                @Param("assignedTo") Long assignedTo,
-                                Pageable pageable);
+    Page<Ticket> findByOrganizationIdAndAssignedToId(Long organizationId, Long assignedToId, Pageable pageable);
+    
+    Page<Ticket> findByOrganizationIdAndStatusAndAssignedToId(Long organizationId, TicketStatus status,
+                                                              Long assignedToId, Pageable pageable);
+    
+    // Activity filters scan idx_tickets_org_last_message_at; one query per filter combination, no optional predicates
+    Page<Ticket> findByOrganizationIdAndLastMessageAtGreaterThanEqual(Long organizationId, LocalDateTime since,
+                                                                       Pageable pageable);
+    
+    Page<Ticket> findByOrganizationIdAndLastMessageAtGreaterThanEqualAndStatus(Long organizationId,
+                                                                                LocalDateTime since,
+                                                                                TicketStatus status,
+                                                                                Pageable pageable);
+    
+    Page<Ticket> findByOrganizationIdAndLastMessageAtGreaterThanEqualAndAssignedToId(Long organizationId,
+                                                                                      LocalDateTime since,
+                                                                                      Long assignedToId,
+                                                                                      Pageable pageable);
+    
+    Page<Ticket> findByOrganizationIdAndLastMessageAtGreaterThanEqualAndStatusAndAssignedToId(
+            Long organizationId, LocalDateTime since, TicketStatus status, Long assignedToId, Pageable pageable);
+    
+    default Page<Ticket> findByFilters(Long orgId, TicketStatus status, Long assignedTo, LocalDateTime activeSince,
+                                       Pageable pageable) {
+        if (activeSince != null && status != null && assignedTo != null) {
+            return findByOrganizationIdAndLastMessageAtGreaterThanEqualAndStatusAndAssignedToId(
+                    orgId, activeSince, status, assignedTo, pageable);
+        }
+        if (activeSince != null && status != null) {
+            return findByOrganizationIdAndLastMessageAtGreaterThanEqualAndStatus(orgId, activeSince, status, pageable);
+        }
+        if (activeSince != null && assignedTo != null) {
+            return findByOrganizationIdAndLastMessageAtGreaterThanEqualAndAssignedToId(
+                    orgId, activeSince, assignedTo, pageable);
+        }
+        if (activeSince != null) {
+            return findByOrganizationIdAndLastMessageAtGreaterThanEqual(orgId, activeSince, pageable);
+        }
+        if (status != null && assignedTo != null) {
+            return findByOrganizationIdAndStatusAndAssignedToId(orgId, status, assignedTo, pageable);
+        }
+        if (status != null) {
+            return findByOrganizationIdAndStatus(orgId, status, pageable);
+        }
+        if (assignedTo != null) {
+            return findByOrganizationIdAndAssignedToId(orgId, assignedTo, pageable);
+        }
+        return findByOrganizationId(orgId, pageable);
+    }
+    
+    @Query(value = SUMMARY_SELECT + "WHERE t.organization.id = :orgId",
+           countQuery = "SELECT COUNT(t) FROM Ticket t WHERE t.organization.id = :orgId")
+    Page<TicketSummaryResponse> findSummaries(@Param("orgId") Long orgId, Pageable pageable);
+    
+    @Query(value = SUMMARY_SELECT + "WHERE t.organization.id = :orgId AND t.status = :status",
+           countQuery = "SELECT COUNT(t) FROM Ticket t WHERE t.organization.id = :orgId AND t.status = :status")
+    Page<TicketSummaryResponse> findSummariesByStatus(@Param("orgId") Long orgId,
+                                                      @Param("status") TicketStatus status,
+                                                      Pageable pageable);
+    
+    @Query(value = SUMMARY_SELECT + "WHERE t.organization.id = :orgId AND t.assignedTo.id = :assignedTo",
+           countQuery = "SELECT COUNT(t) FROM Ticket t " +
+                        "WHERE t.organization.id = :orgId AND t.assignedTo.id = :assignedTo")
+    Page<TicketSummaryResponse> findSummariesByAssignee(@Param("orgId") Long orgId,
+                                                        @Param("assignedTo") Long assignedTo,
+                                                        Pageable pageable);
+    
+    @Query(value = SUMMARY_SELECT + "WHERE t.organization.id = :orgId AND t.status = :status " +
+                   "AND t.assignedTo.id = :assignedTo",
+           countQuery = "SELECT COUNT(t) FROM Ticket t WHERE t.organization.id = :orgId " +
+                        "AND t.status = :status AND t.assignedTo.id = :assignedTo")
+    Page<TicketSummaryResponse> findSummariesByStatusAndAssignee(@Param("orgId") Long orgId,
+                                                                 @Param("status") TicketStatus status,
+                                                                 @Param("assignedTo") Long assignedTo,
+                                                                 Pageable pageable);
+    
+    @Query(value = SUMMARY_SELECT + "WHERE t.organization.id = :orgId AND t.lastMessageAt >= :since",
+           countQuery = "SELECT COUNT(t) FROM Ticket t WHERE t.organization.id = :orgId AND t.lastMessageAt >= :since")
+    Page<TicketSummaryResponse> findSummariesActiveSince(@Param("orgId") Long orgId,
+                                                         @Param("since") LocalDateTime since,
+                                                         Pageable pageable);
+    
+    @Query(value = SUMMARY_SELECT + "WHERE t.organization.id = :orgId AND t.lastMessageAt >= :since " +
+                   "AND t.status = :status",
+           countQuery = "SELECT COUNT(t) FROM Ticket t WHERE t.organization.id = :orgId " +
+                        "AND t.lastMessageAt >= :since AND t.status = :status")
+    Page<TicketSummaryResponse> findSummariesActiveSinceByStatus(@Param("orgId") Long orgId,
+                                                                 @Param("since") LocalDateTime since,
+                                                                 @Param("status") TicketStatus status,
+                                                                 Pageable pageable);
+    
+    @Query(value = SUMMARY_SELECT + "WHERE t.organization.id = :orgId AND t.lastMessageAt >= :since " +
+                   "AND t.assignedTo.id = :assignedTo",
+           countQuery = "SELECT COUNT(t) FROM Ticket t WHERE t.organization.id = :orgId " +
+                        "AND t.lastMessageAt >= :since AND t.assignedTo.id = :assignedTo")
+    Page<TicketSummaryResponse> findSummariesActiveSinceByAssignee(@Param("orgId") Long orgId,
+                                                                   @Param("since") LocalDateTime since,
+                                                                   @Param("assignedTo") Long assignedTo,
+                                                                   Pageable pageable);
+    
+    @Query(value = SUMMARY_SELECT + "WHERE t.organization.id = :orgId AND t.lastMessageAt >= :since " +
+                   "AND t.status = :status AND t.assignedTo.id = :assignedTo",
+           countQuery = "SELECT COUNT(t) FROM Ticket t WHERE t.organization.id = :orgId " +
+                        "AND t.lastMessageAt >= :since AND t.status = :status AND t.assignedTo.id = :assignedTo")
+    Page<TicketSummaryResponse> findSummariesActiveSinceByStatusAndAssignee(@Param("orgId") Long orgId,
+                                                                            @Param("since") LocalDateTime since,
+                                                                            @Param("status") TicketStatus status,
+                                                                            @Param("assignedTo") Long assignedTo,
+                                                                            Pageable pageable);
+    
+    default Page<TicketSummaryResponse> findSummariesByFilters(Long orgId, TicketStatus status, Long assignedTo,
+                                                               LocalDateTime activeSince, Pageable pageable) {
+        if (activeSince != null && status != null && assignedTo != null) {
+            return findSummariesActiveSinceByStatusAndAssignee(orgId, activeSince, status, assignedTo, pageable);
+        }
+        if (activeSince != null && status != null) {
+            return findSummariesActiveSinceByStatus(orgId, activeSince, status, pageable);
+        }
+        if (activeSince != null && assignedTo != null) {
+            return findSummariesActiveSinceByAssignee(orgId, activeSince, assignedTo, pageable);
+        }
+        if (activeSince != null) {
+            return findSummariesActiveSince(orgId, activeSince, pageable);
+        }
+        if (status != null && assignedTo != null) {
+            return findSummariesByStatusAndAssignee(orgId, status, assignedTo, pageable);
+        }
+        if (status != null) {
+            return findSummariesByStatus(orgId, status, pageable);
+        }
+        if (assignedTo != null) {
+            return findSummariesByAssignee(orgId, assignedTo, pageable);
+        }
+        return findSummaries(orgId, pageable);
+    }
+    
+    @Query("SELECT t FROM Ticket t " +
+           "JOIN FETCH t.createdBy cb JOIN FETCH cb.organization " +
+           "LEFT JOIN FETCH t.assignedTo a LEFT JOIN FETCH a.organization " +
+           "WHERE t.organization.id = :orgId AND t.id IN :ids")
+    List<Ticket> findAllWithUsersByOrganizationIdAndIdIn(@Param("orgId") Long orgId,
+                                                         @Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT t.id FROM Ticket t WHERE t.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT t.organization.id AS organizationId, t.version AS version, t.updatedAt AS updatedAt, " +
+           "t.messageCount AS messageCount, t.lastMessageAt AS lastMessageAt, " +
+           "t.publicMessageCount AS publicMessageCount, t.lastPublicMessageAt AS lastPublicMessageAt, " +
+           "t.attachmentCount AS attachmentCount, t.lastAttachmentAt AS lastAttachmentAt " +
+           "FROM Ticket t WHERE t.id = :id")
+    Optional<VersionView> findVersionById(@Param("id") Long id);
+    
+    @Query("SELECT t.id AS ticketId, t.assignedTo.id AS agentId, t.title AS title, t.status AS status, " +
+           "t.priority AS priority, s.firstResponseDeadline AS firstResponseDeadline, " +
+           "s.resolutionDeadline AS resolutionDeadline, s.firstResponseMet AS firstResponseMet " +
+           "FROM Ticket t LEFT JOIN SlaConfig s ON s.ticket = t " +
+           "WHERE t.assignedTo IS NOT NULL AND t.status IN :statuses")
+    List<WorkQueueView> findAssignedForWorkQueue(@Param("statuses") Collection<TicketStatus> statuses);
+    
+    @Query("SELECT t.id AS ticketId, t.assignedTo.id AS agentId, t.title AS title, t.status AS status, " +
+           "t.priority AS priority, s.firstResponseDeadline AS firstResponseDeadline, " +
+           "s.resolutionDeadline AS resolutionDeadline, s.firstResponseMet AS firstResponseMet " +
+           "FROM Ticket t LEFT JOIN SlaConfig s ON s.ticket = t " +
+           "WHERE t.assignedTo IS NOT NULL AND t.status IN :statuses AND t.id IN :ids")
+    List<WorkQueueView> findWorkQueueItemsByIdIn(@Param("ids") Collection<Long> ids,
+                                                 @Param("statuses") Collection<TicketStatus> statuses);
+    
+    @Query("SELECT t.id AS id, t.organization.id AS organizationId, t.title AS title, " +
+           "t.description AS description, t.duplicateOfId AS duplicateOfId, t.createdAt AS createdAt " +
+           "FROM Ticket t WHERE t.status IN :statuses AND t.createdAt >= :since ORDER BY t.createdAt, t.id")
+    List<DuplicateIndexView> findRecentForDuplicateIndex(@Param("statuses") Collection<TicketStatus> statuses,
+                                                         @Param("since") LocalDateTime since);
+    
+    @Query("SELECT t.id AS id, t.organization.id AS organizationId, t.title AS title, " +
+           "t.description AS description, t.duplicateOfId AS duplicateOfId, t.createdAt AS createdAt " +
+           "FROM Ticket t WHERE t.status IN :statuses AND t.createdAt >= :since AND t.id IN :ids " +
+           "ORDER BY t.createdAt, t.id")
+    List<DuplicateIndexView> findForDuplicateIndexByIdIn(@Param("ids") Collection<Long> ids,
+                                                         @Param("statuses") Collection<TicketStatus> statuses,
+                                                         @Param("since") LocalDateTime since);
+    
+    @Query("SELECT t.id FROM Ticket t WHERE t.status = com.dk.supportsystem.enums.TicketStatus.CLOSED " +
+           "AND t.closedAt < :cutoff AND t.id > :afterId ORDER BY t.id")
+    List<Long> findClosedIdsBefore(@Param("cutoff") LocalDateTime cutoff,
+                                   @Param("afterId") Long afterId,
+                                   Pageable pageable);
+    
+    // A single UPDATE so concurrent messages cannot lose an increment; does not bump the ticket version
+    @Modifying
+    @Query("UPDATE Ticket t SET t.messageCount = t.messageCount + 1, t.lastMessageAt = :at, " +
+           "t.lastMessageBy = :userId WHERE t.id = :id")
+    int recordInternalMessage(@Param("id") Long id, @Param("userId") Long userId, @Param("at") LocalDateTime at);
+    
+    @Modifying
+    @Query("UPDATE Ticket t SET t.messageCount = t.messageCount + 1, t.lastMessageAt = :at, " +
+           "t.lastMessageBy = :userId, t.publicMessageCount = t.publicMessageCount + 1, " +
+           "t.lastPublicMessageAt = :at WHERE t.id = :id")
+    int recordPublicMessage(@Param("id") Long id, @Param("userId") Long userId, @Param("at") LocalDateTime at);
+    
+    @Modifying
+    @Query("UPDATE Ticket t SET t.attachmentCount = t.attachmentCount + 1, t.lastAttachmentAt = :at WHERE t.id = :id")
+    int recordAttachment(@Param("id") Long id, @Param("at") LocalDateTime at);
+    
+    @Modifying
+    @Query("DELETE FROM Ticket t WHERE t.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+    
+    interface VersionView {
+        Long getOrganizationId();
+        
+        Long getVersion();
+        
+        LocalDateTime getUpdatedAt();
+        
+        Integer getMessageCount();
+        
+        LocalDateTime getLastMessageAt();
+        
+        Integer getPublicMessageCount();
+        
+        LocalDateTime getLastPublicMessageAt();
+        
+        Integer getAttachmentCount();
+        
+        LocalDateTime getLastAttachmentAt();
+    }
+    
+    interface WorkQueueView {
+        Long getTicketId();
+        
+        Long getAgentId();
+        
+        String getTitle();
+        
+        TicketStatus getStatus();
+        
+        TicketPriority getPriority();
+        
+        LocalDateTime getFirstResponseDeadline();
+        
+        LocalDateTime getResolutionDeadline();
+        
+        Boolean getFirstResponseMet();
+    }
+    
+    interface DuplicateIndexView {
+        Long getId();
+        
+        Long getOrganizationId();
+        
+        String getTitle();
+        
+        String getDescription();
+        
+        Long getDuplicateOfId();
+        
+        LocalDateTime getCreatedAt();
+    }
 }
@@ -2,12 +2,33 @@ package com.dk.supportsystem.repository;
 
 import com.dk.supportsystem.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
+    @Query("SELECT u.organization.id FROM User u WHERE u.id = :id")
+    Optional<Long> findOrganizationIdById(@Param("id") Long id);
+    
+    @Query("SELECT u.id AS id, LOWER(u.email) AS email FROM User u " +
+           "WHERE u.organization.id = :orgId AND LOWER(u.email) IN :emails")
+    List<UserEmailView> findByOrganizationIdAndEmailIn(@Param("orgId") Long orgId,
+                                                       @Param("emails") Collection<String> emails);
+    
+    interface UserEmailView {
+        Long getId();
+        
+        String getEmail();
+    }
 }
@@ -20,6 +20,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
+    public static final String ORGANIZATION_ID_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".organizationId";
+    
     private final JwtTokenProvider tokenProvider;
     
     @Override
@@ -33,6 +35,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 String email = tokenProvider.getEmailFromToken(jwt);
                 Long userId = tokenProvider.getUserIdFromToken(jwt);
                 String role = tokenProvider.getRoleFromToken(jwt);
+                Long organizationId = tokenProvider.getOrganizationIdFromToken(jwt);
                 
                 UsernamePasswordAuthenticationToken authentication = 
                         new UsernamePasswordAuthenticationToken(
@@ -43,6 +46,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                if (organizationId != null) {
+                    request.setAttribute(ORGANIZATION_ID_ATTRIBUTE, organizationId);
+                }
             }
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
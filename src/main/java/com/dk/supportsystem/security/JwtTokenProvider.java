@@ -28,9 +28,10 @@ public class JwtTokenProvider {
         return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
     }
     
-    public String generateAccessToken(String email, Long userId, String role) {
+    public String generateAccessToken(String email, Long userId, Long organizationId, String role) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
+        claims.put("orgId", organizationId);
         claims.put("role", role);
         return createToken(claims, email, accessTokenExpiration);
     }
@@ -60,6 +61,10 @@ public class JwtTokenProvider {
         return getClaims(token).get("userId", Long.class);
     }
     
+    public Long getOrganizationIdFromToken(String token) {
+        return getClaims(token).get("orgId", Long.class);
+    }
+    
     public String getRoleFromToken(String token) {
         return getClaims(token).get("role", String.class);
     }
@@ -0,0 +1,122 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.enums.RequestPriority;
+import com.dk.supportsystem.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency-driven concurrency limit for ticket requests (gradient algorithm). The limit shrinks when recent
+ * latency rises above the long-term baseline and grows by roughly sqrt(limit) while latency holds, so it
+ * follows how much concurrency the database can currently absorb. Requests over the limit are rejected
+ * immediately rather than queued. Bulk reads may only use {@code bulk-share} of the limit and critical
+ * reads {@code critical-share}, which leaves headroom for writes when the limit contracts.
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimiter {
+    
+    private static final double TOLERANCE = 1.5;
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 600;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double criticalShare;
+    private final double bulkShare;
+    
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Map<RequestPriority, Counter> rejections = new EnumMap<>(RequestPriority.class);
+    
+    private volatile double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+    
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      @Value("${concurrency-limit.initial-limit}") int initialLimit,
+                                      @Value("${concurrency-limit.min-limit}") int minLimit,
+                                      @Value("${concurrency-limit.max-limit}") int maxLimit,
+                                      @Value("${concurrency-limit.smoothing}") double smoothing,
+                                      @Value("${concurrency-limit.critical-share}") double criticalShare,
+                                      @Value("${concurrency-limit.bulk-share}") double bulkShare) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.criticalShare = criticalShare;
+        this.bulkShare = bulkShare;
+        
+        Gauge.builder("tickets.concurrency.limit", this, l -> l.limit).register(meterRegistry);
+        Gauge.builder("tickets.concurrency.inflight", inflight, AtomicInteger::get).register(meterRegistry);
+        for (RequestPriority priority : RequestPriority.values()) {
+            rejections.put(priority, Counter.builder("tickets.concurrency.rejected")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry));
+        }
+    }
+    
+    public void acquire(RequestPriority priority) {
+        int allowed = capacityFor(priority);
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                rejections.get(priority).increment();
+                throw new ServiceOverloadedException("Server is busy, please retry shortly");
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return;
+            }
+        }
+    }
+    
+    public void release(long rttNanos) {
+        int inflightBefore = inflight.getAndDecrement();
+        onSample(rttNanos, inflightBefore);
+    }
+    
+    private int capacityFor(RequestPriority priority) {
+        double current = limit;
+        return switch (priority) {
+            case WRITE -> (int) current;
+            case CRITICAL_READ -> Math.max(1, (int) (current * criticalShare));
+            case BULK_READ -> Math.max(1, (int) (current * bulkShare));
+        };
+    }
+    
+    private synchronized void onSample(long rttNanos, int inflightBefore) {
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+        longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+        
+        // After a slow period the baseline lags far behind; let it catch up instead of pinning the limit
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        
+        // Under light load latency says nothing about a higher limit
+        if (inflightBefore < limit / 2) {
+            return;
+        }
+        
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        double next = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + target * smoothing));
+        if ((int) next != (int) limit) {
+            log.debug("Concurrency limit {} -> {}", (int) limit, (int) next);
+        }
+        limit = next;
+    }
+}
@@ -0,0 +1,229 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.cluster.ClusterSubscriber;
+import com.dk.supportsystem.dto.response.WorkQueueItemResponse;
+import com.dk.supportsystem.entity.SlaConfig;
+import com.dk.supportsystem.entity.Ticket;
+import com.dk.supportsystem.enums.TicketPriority;
+import com.dk.supportsystem.enums.TicketStatus;
+import com.dk.supportsystem.repository.TicketRepository;
+import com.dk.supportsystem.shard.ShardCatalog;
+import jakarta.annotation.PostConstruct;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory "next best ticket" queue per agent, ordered by the SLA deadline that is currently running
+ * (first response while it is pending, resolution afterwards). Rebuilt from the database on startup and
+ * kept current by {@link TicketService} after each committed change, so reads never touch the database.
+ * Changes committed on other nodes are reloaded by id when the cluster bus reports them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AgentWorkQueue implements ClusterSubscriber {
+    
+    static final Set<TicketStatus> ACTIVE_STATUSES =
+            EnumSet.of(TicketStatus.OPEN, TicketStatus.IN_PROGRESS, TicketStatus.WAITING);
+    
+    // Tickets waiting on the customer go last, then earliest deadline, then highest priority
+    private static final Comparator<Item> ORDER = Comparator
+            .comparing((Item item) -> item.getStatus() == TicketStatus.WAITING)
+            .thenComparing(Item::effectiveDeadline, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Item::getPriority, Comparator.reverseOrder())
+            .thenComparing(Item::getTicketId);
+    
+    private final TicketRepository ticketRepository;
+    private final ShardCatalog shardCatalog;
+    
+    private final Map<Long, AgentQueue> queues = new ConcurrentHashMap<>();
+    private final Map<Long, Long> owners = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    void rebuild() {
+        int count = 0;
+        for (TicketRepository.WorkQueueView row : shardCatalog.collect(() ->
+                ticketRepository.findAssignedForWorkQueue(ACTIVE_STATUSES))) {
+            apply(toItem(row));
+            count++;
+        }
+        log.info("Rebuilt agent work queues with {} tickets", count);
+    }
+    
+    @Override
+    public void onTicketsChanged(Set<Long> ticketIds) {
+        Set<Long> gone = new HashSet<>(ticketIds);
+        for (TicketRepository.WorkQueueView row : ticketRepository.findWorkQueueItemsByIdIn(ticketIds, ACTIVE_STATUSES)) {
+            apply(toItem(row));
+            gone.remove(row.getTicketId());
+        }
+        gone.forEach(this::detach);
+    }
+    
+    @Override
+    public synchronized void onResync() {
+        queues.clear();
+        owners.clear();
+        rebuild();
+    }
+    
+    public List<WorkQueueItemResponse> peek(Long agentId, int limit) {
+        AgentQueue queue = queues.get(agentId);
+        if (queue == null) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return queue.top(limit).stream()
+                .map(item -> toResponse(item, now))
+                .toList();
+    }
+    
+    public Optional<Item> find(Long ticketId) {
+        Long agentId = owners.get(ticketId);
+        AgentQueue queue = agentId != null ? queues.get(agentId) : null;
+        return queue != null ? Optional.ofNullable(queue.get(ticketId)) : Optional.empty();
+    }
+    
+    public Item itemFor(Ticket ticket, SlaConfig sla) {
+        return Item.builder()
+                .ticketId(ticket.getId())
+                .agentId(ticket.getAssignedTo() != null ? ticket.getAssignedTo().getId() : null)
+                .title(ticket.getTitle())
+                .status(ticket.getStatus())
+                .priority(ticket.getPriority())
+                .firstResponseDeadline(sla != null ? sla.getFirstResponseDeadline() : null)
+                .resolutionDeadline(sla != null ? sla.getResolutionDeadline() : null)
+                .firstResponsePending(sla == null || !Boolean.TRUE.equals(sla.getFirstResponseMet()))
+                .build();
+    }
+    
+    public void put(Item item) {
+        TransactionHooks.afterCommit(() -> apply(item));
+    }
+    
+    public void remove(Long ticketId) {
+        TransactionHooks.afterCommit(() -> detach(ticketId));
+    }
+    
+    public void markFirstResponded(Long ticketId) {
+        TransactionHooks.afterCommit(() -> find(ticketId)
+                .ifPresent(item -> apply(item.toBuilder().firstResponsePending(false).build())));
+    }
+    
+    private synchronized void apply(Item item) {
+        if (item.getAgentId() == null || !ACTIVE_STATUSES.contains(item.getStatus())) {
+            detach(item.getTicketId());
+            return;
+        }
+        Long previousAgent = owners.put(item.getTicketId(), item.getAgentId());
+        if (previousAgent != null && !previousAgent.equals(item.getAgentId())) {
+            AgentQueue previous = queues.get(previousAgent);
+            if (previous != null) {
+                previous.remove(item.getTicketId());
+            }
+        }
+        queues.computeIfAbsent(item.getAgentId(), id -> new AgentQueue()).put(item);
+    }
+    
+    private synchronized void detach(Long ticketId) {
+        Long agentId = owners.remove(ticketId);
+        AgentQueue queue = agentId != null ? queues.get(agentId) : null;
+        if (queue != null) {
+            queue.remove(ticketId);
+        }
+    }
+    
+    private static Item toItem(TicketRepository.WorkQueueView row) {
+        return Item.builder()
+                .ticketId(row.getTicketId())
+                .agentId(row.getAgentId())
+                .title(row.getTitle())
+                .status(row.getStatus())
+                .priority(row.getPriority())
+                .firstResponseDeadline(row.getFirstResponseDeadline())
+                .resolutionDeadline(row.getResolutionDeadline())
+                .firstResponsePending(!Boolean.TRUE.equals(row.getFirstResponseMet()))
+                .build();
+    }
+    
+    private static WorkQueueItemResponse toResponse(Item item, LocalDateTime now) {
+        LocalDateTime deadline = item.effectiveDeadline();
+        return WorkQueueItemResponse.builder()
+                .ticketId(item.getTicketId())
+                .title(item.getTitle())
+                .status(item.getStatus())
+                .priority(item.getPriority())
+                .deadline(deadline)
+                .firstResponsePending(item.isFirstResponsePending())
+                .overdue(deadline != null && deadline.isBefore(now))
+                .build();
+    }
+    
+    @Value
+    @Builder(toBuilder = true)
+    public static class Item {
+        Long ticketId;
+        Long agentId;
+        String title;
+        TicketStatus status;
+        TicketPriority priority;
+        LocalDateTime firstResponseDeadline;
+        LocalDateTime resolutionDeadline;
+        boolean firstResponsePending;
+        
+        LocalDateTime effectiveDeadline() {
+            return firstResponsePending ? firstResponseDeadline : resolutionDeadline;
+        }
+    }
+    
+    private static final class AgentQueue {
+        private final TreeSet<Item> ordered = new TreeSet<>(ORDER);
+        private final Map<Long, Item> byTicket = new HashMap<>();
+        
+        synchronized void put(Item item) {
+            Item previous = byTicket.put(item.getTicketId(), item);
+            if (previous != null) {
+                ordered.remove(previous);
+            }
+            ordered.add(item);
+        }
+        
+        synchronized void remove(Long ticketId) {
+            Item previous = byTicket.remove(ticketId);
+            if (previous != null) {
+                ordered.remove(previous);
+            }
+        }
+        
+        synchronized Item get(Long ticketId) {
+            return byTicket.get(ticketId);
+        }
+        
+        synchronized List<Item> top(int limit) {
+            List<Item> items = new ArrayList<>(Math.min(limit, ordered.size()));
+            for (Item item : ordered) {
+                if (items.size() >= limit) {
+                    break;
+                }
+                items.add(item);
+            }
+            return items;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.dk.supportsystem.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.file.Path;
+
+@Data
+@AllArgsConstructor
+public class AttachmentContent {
+    private String fileName;
+    private String contentType;
+    private long sizeBytes;
+    private String sha256;
+    private Path path;
+}
@@ -0,0 +1,125 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.archive.ArchivedAttachment;
+import com.dk.supportsystem.archive.TicketArchiveStore;
+import com.dk.supportsystem.cluster.ClusterBus;
+import com.dk.supportsystem.dto.response.AttachmentResponse;
+import com.dk.supportsystem.dto.response.MessageResponse;
+import com.dk.supportsystem.entity.MessageAttachment;
+import com.dk.supportsystem.exception.BadRequestException;
+import com.dk.supportsystem.exception.ResourceNotFoundException;
+import com.dk.supportsystem.repository.MessageAttachmentRepository;
+import com.dk.supportsystem.repository.TicketMessageRepository;
+import com.dk.supportsystem.repository.TicketRepository;
+import com.dk.supportsystem.storage.BlobStore;
+import com.dk.supportsystem.storage.StoredBlob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class AttachmentService {
+    
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final int MAX_FILE_NAME_LENGTH = 255;
+    
+    private final TicketService ticketService;
+    private final TicketMessageRepository messageRepository;
+    private final MessageAttachmentRepository attachmentRepository;
+    private final TicketArchiveStore archiveStore;
+    private final BlobStore blobStore;
+    private final TicketRepository ticketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TicketListCache listCache;
+    private final ClusterBus clusterBus;
+    
+    // The upload is streamed to disk before any connection is taken for the metadata insert
+    public AttachmentResponse addAttachment(Long ticketId, Long messageId, MultipartFile file, Long userId) {
+        MessageResponse message = ticketService.getMessage(ticketId, messageId, userId);
+        if (!message.getUser().id().equals(userId)) {
+            throw new BadRequestException("Only the message author can add attachments");
+        }
+        if (file.isEmpty()) {
+            throw new BadRequestException("Attachment is empty");
+        }
+        
+        StoredBlob blob;
+        try (InputStream in = file.getInputStream()) {
+            blob = blobStore.put(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store attachment", e);
+        }
+        
+        Long organizationId = ticketService.getOrganizationId(userId);
+        MessageAttachment attachment = transactionTemplate.execute(status -> {
+            MessageAttachment saved = attachmentRepository.save(MessageAttachment.builder()
+                    .message(messageRepository.getReferenceById(messageId))
+                    .fileName(sanitizeFileName(file.getOriginalFilename()))
+                    .contentType(StringUtils.hasText(file.getContentType()) ? file.getContentType() : DEFAULT_CONTENT_TYPE)
+                    .sizeBytes(blob.getSizeBytes())
+                    .sha256(blob.getSha256())
+                    .build());
+            // Moves the thread ETag, so clients and the read coalescer do not keep serving the thread without it
+            ticketRepository.recordAttachment(ticketId, saved.getCreatedAt());
+            listCache.invalidate(organizationId);
+            clusterBus.ticketChanged(organizationId, ticketId);
+            return saved;
+        });
+        
+        return AttachmentResponse.builder()
+                .id(attachment.getId())
+                .fileName(attachment.getFileName())
+                .contentType(attachment.getContentType())
+                .sizeBytes(attachment.getSizeBytes())
+                .createdAt(attachment.getCreatedAt())
+                .build();
+    }
+    
+    @Transactional(readOnly = true)
+    public AttachmentContent getAttachmentContent(Long ticketId, Long attachmentId, Long userId) {
+        ticketService.validateTicketAccess(ticketId, userId);
+        
+        AttachmentContent content = attachmentRepository.findByIdAndMessageTicketId(attachmentId, ticketId)
+                .map(a -> new AttachmentContent(a.getFileName(), a.getContentType(), a.getSizeBytes(),
+                        a.getSha256(), blobStore.resolve(a.getSha256())))
+                .or(() -> findArchivedAttachment(ticketId, attachmentId))
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment not found"));
+        
+        if (!Files.isReadable(content.getPath())) {
+            throw new ResourceNotFoundException("Attachment content not found");
+        }
+        return content;
+    }
+    
+    private Optional<AttachmentContent> findArchivedAttachment(Long ticketId, Long attachmentId) {
+        return archiveStore.find(ticketId).stream()
+                .flatMap(t -> t.getMessages().stream())
+                .flatMap(m -> m.getAttachments().stream())
+                .filter(a -> a.getId().equals(attachmentId))
+                .findFirst()
+                .map(this::toContent);
+    }
+    
+    private AttachmentContent toContent(ArchivedAttachment attachment) {
+        return new AttachmentContent(attachment.getFileName(), attachment.getContentType(),
+                attachment.getSizeBytes(), attachment.getSha256(), blobStore.resolve(attachment.getSha256()));
+    }
+    
+    private static String sanitizeFileName(String originalName) {
+        String name = StringUtils.getFilename(StringUtils.cleanPath(originalName != null ? originalName : ""));
+        if (!StringUtils.hasText(name)) {
+            name = "attachment";
+        }
+        return name.length() > MAX_FILE_NAME_LENGTH ? name.substring(name.length() - MAX_FILE_NAME_LENGTH) : name;
+    }
+}
@@ -11,59 +11,92 @@ import com.dk.supportsystem.exception.BadRequestException;
 import com.dk.supportsystem.repository.OrganizationRepository;
 import com.dk.supportsystem.repository.UserRepository;
 import com.dk.supportsystem.security.JwtTokenProvider;
-import lombok.RequiredArgsConstructor;
+import com.dk.supportsystem.shard.ShardCatalog;
+import com.dk.supportsystem.shard.ShardContext;
+import com.dk.supportsystem.shard.ShardDirectory;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
 
 @Service
-@RequiredArgsConstructor
 public class AuthService {
     
     private final UserRepository userRepository;
     private final OrganizationRepository organizationRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
+    private final ShardCatalog shardCatalog;
+    private final ShardDirectory shardDirectory;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    
+    public AuthService(UserRepository userRepository,
+                       OrganizationRepository organizationRepository,
+                       PasswordEncoder passwordEncoder,
+                       JwtTokenProvider tokenProvider,
+                       ShardCatalog shardCatalog,
+                       ShardDirectory shardDirectory,
+                       PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.organizationRepository = organizationRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.tokenProvider = tokenProvider;
+        this.shardCatalog = shardCatalog;
+        this.shardDirectory = shardDirectory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
     
-    @Transactional
+    /**
+     * Organizations and users can live on any shard, so lookups by email or organization name scan all
+     * of them; each step runs in its own transaction because a transaction is pinned to one shard.
+     */
     public AuthResponse signup(SignupRequest request) {
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (shardCatalog.findFirst(() -> transactionTemplate.execute(status ->
+                userRepository.findByEmail(request.getEmail()).map(User::getId))).isPresent()) {
             throw new BadRequestException("Email already exists");
         }
         
-        Organization organization = organizationRepository
-                .findByName(request.getOrganizationName())
-                .orElseGet(() -> organizationRepository.save(
-                        Organization.builder()
-                                .name(request.getOrganizationName())
-                                .build()
-                ));
-        
-        User user = User.builder()
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .fullName(request.getFullName())
-                .role(UserRole.ADMIN)
-                .organization(organization)
-                .isActive(true)
-                .build();
+        Optional<Placed<Organization>> existing = shardCatalog.findFirst(() -> transactionTemplate.execute(status ->
+                organizationRepository.findByName(request.getOrganizationName())
+                        .map(organization -> new Placed<>(ShardContext.current(), organization))));
+        String shard = existing.map(Placed::shard).orElseGet(shardDirectory::newOrganizationShard);
         
-        user = userRepository.save(user);
+        User user = ShardContext.call(shard, () -> transactionTemplate.execute(status -> {
+            Organization organization = existing.map(Placed::value)
+                    .orElseGet(() -> organizationRepository.save(
+                            Organization.builder()
+                                    .name(request.getOrganizationName())
+                                    .build()
+                    ));
+            
+            return userRepository.save(User.builder()
+                    .email(request.getEmail())
+                    .password(passwordEncoder.encode(request.getPassword()))
+                    .fullName(request.getFullName())
+                    .role(UserRole.ADMIN)
+                    .organization(organization)
+                    .isActive(true)
+                    .build());
+        }));
         
-        String accessToken = tokenProvider.generateAccessToken(
-                user.getEmail(), user.getId(), user.getRole().name());
-        String refreshToken = tokenProvider.generateRefreshToken(user.getEmail());
-        
-        return AuthResponse.builder()
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
-                .user(mapToUserResponse(user))
-                .build();
+        if (existing.isEmpty() && !ShardCatalog.DEFAULT_SHARD.equals(shard)) {
+            shardDirectory.place(user.getOrganization().getId(), shard, false);
+        }
+        return buildResponse(user);
     }
     
-    @Transactional(readOnly = true)
     public AuthResponse login(LoginRequest request) {
-        User user = userRepository.findByEmail(request.getEmail())
+        User user = shardCatalog.findFirst(() -> readOnlyTransaction.execute(status ->
+                        userRepository.findByEmail(request.getEmail()).map(found -> {
+                            // Touch the organization while the session is still open
+                            found.getOrganization().getName();
+                            return found;
+                        })))
                 .orElseThrow(() -> new BadRequestException("Invalid credentials"));
         
         if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
@@ -74,8 +107,12 @@ public class AuthService {
             throw new BadRequestException("Account is inactive");
         }
         
+        return buildResponse(user);
+    }
+    
+    private AuthResponse buildResponse(User user) {
         String accessToken = tokenProvider.generateAccessToken(
-                user.getEmail(), user.getId(), user.getRole().name());
+                user.getEmail(), user.getId(), user.getOrganization().getId(), user.getRole().name());
         String refreshToken = tokenProvider.generateRefreshToken(user.getEmail());
         
         return AuthResponse.builder()
@@ -94,4 +131,7 @@ public class AuthService {
                 .organizationName(user.getOrganization().getName())
                 .build();
     }
+    
+    private record Placed<T>(String shard, T value) {
+    }
 }
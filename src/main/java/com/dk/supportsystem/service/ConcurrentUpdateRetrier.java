@@ -0,0 +1,48 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.exception.ConflictException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a transactional operation that lost an optimistic-lock race. Only use it for operations that
+ * re-read their entity and re-validate on every attempt, so a retry applies the same intent to fresh state.
+ */
+@Slf4j
+@Component
+public class ConcurrentUpdateRetrier {
+    
+    @Value("${tickets.optimistic-retry.max-attempts}")
+    private int maxAttempts;
+    
+    @Value("${tickets.optimistic-retry.backoff-ms}")
+    private long backoffMs;
+    
+    public <T> T execute(Supplier<T> operation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.get();
+            } catch (ObjectOptimisticLockingFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    throw new ConflictException("Ticket was modified concurrently, please retry");
+                }
+                log.debug("Optimistic lock conflict on attempt {}, retrying", attempt);
+                sleepBeforeRetry(attempt);
+            }
+        }
+    }
+    
+    private void sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMs * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Ticket was modified concurrently, please retry");
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.cluster.ClusterSubscriber;
+import com.dk.supportsystem.entity.Ticket;
+import com.dk.supportsystem.repository.TicketRepository;
+import com.dk.supportsystem.shard.ShardCatalog;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flags new tickets that are near-duplicates of a recent open ticket in the same organization. Each
+ * organization keeps a MinHash/LSH index over the tickets created within {@code duplicates.max-age},
+ * capped at {@code duplicates.max-per-org} entries, so a lookup only compares against tickets sharing
+ * at least one LSH band. Rebuilt from the database on startup; tickets created or closed on other nodes
+ * arrive through the cluster bus.
+ */
+@Slf4j
+@Component
+public class DuplicateTicketDetector implements ClusterSubscriber {
+    
+    private final TicketRepository ticketRepository;
+    private final ShardCatalog shardCatalog;
+    private final Duration maxAge;
+    private final int maxPerOrganization;
+    private final double minSimilarity;
+    
+    private final Map<Long, OrganizationIndex> indexes = new ConcurrentHashMap<>();
+    
+    public DuplicateTicketDetector(TicketRepository ticketRepository,
+                                   ShardCatalog shardCatalog,
+                                   @Value("${duplicates.max-age}") Duration maxAge,
+                                   @Value("${duplicates.max-per-org}") int maxPerOrganization,
+                                   @Value("${duplicates.min-similarity}") double minSimilarity) {
+        this.ticketRepository = ticketRepository;
+        this.shardCatalog = shardCatalog;
+        this.maxAge = maxAge;
+        this.maxPerOrganization = maxPerOrganization;
+        this.minSimilarity = minSimilarity;
+    }
+    
+    @PostConstruct
+    void rebuild() {
+        LocalDateTime since = LocalDateTime.now().minus(maxAge);
+        int count = 0;
+        for (TicketRepository.DuplicateIndexView row :
+                shardCatalog.collect(() -> ticketRepository.findRecentForDuplicateIndex(AgentWorkQueue.ACTIVE_STATUSES, since))) {
+            indexFor(row.getOrganizationId()).add(new Entry(row.getId(),
+                    signatureOf(row.getTitle(), row.getDescription()), row.getDuplicateOfId(), row.getCreatedAt()));
+            count++;
+        }
+        log.info("Rebuilt duplicate ticket index with {} tickets", count);
+    }
+    
+    @Override
+    public void onTicketsChanged(Set<Long> ticketIds) {
+        LocalDateTime since = LocalDateTime.now().minus(maxAge);
+        Set<Long> gone = new HashSet<>(ticketIds);
+        for (TicketRepository.DuplicateIndexView row :
+                ticketRepository.findForDuplicateIndexByIdIn(ticketIds, AgentWorkQueue.ACTIVE_STATUSES, since)) {
+            gone.remove(row.getId());
+            OrganizationIndex index = indexFor(row.getOrganizationId());
+            // Title and description never change, so a ticket that is already indexed stays as it is
+            if (!index.contains(row.getId())) {
+                index.add(new Entry(row.getId(), signatureOf(row.getTitle(), row.getDescription()),
+                        row.getDuplicateOfId(), row.getCreatedAt()));
+            }
+        }
+        for (OrganizationIndex index : indexes.values()) {
+            gone.forEach(index::remove);
+        }
+    }
+    
+    @Override
+    public void onResync() {
+        indexes.clear();
+        rebuild();
+    }
+    
+    public int[] signatureOf(String title, String description) {
+        return MinHash.signature(description != null ? title + "\n" + description : title);
+    }
+    
+    /**
+     * Returns the ticket the given signature most likely duplicates, or {@code null}. Matches are
+     * resolved to the original of a duplicate chain, so every duplicate links to the same ticket.
+     */
+    public Long findOriginal(Long organizationId, int[] signature) {
+        OrganizationIndex index = indexes.get(organizationId);
+        return index != null ? index.findOriginal(signature) : null;
+    }
+    
+    public void index(Ticket ticket, int[] signature) {
+        Entry entry = new Entry(ticket.getId(), signature, ticket.getDuplicateOfId(), ticket.getCreatedAt());
+        Long organizationId = ticket.getOrganization().getId();
+        TransactionHooks.afterCommit(() -> indexFor(organizationId).add(entry));
+    }
+    
+    public void forget(Ticket ticket) {
+        Long organizationId = ticket.getOrganization().getId();
+        TransactionHooks.afterCommit(() -> {
+            OrganizationIndex index = indexes.get(organizationId);
+            if (index != null) {
+                index.remove(ticket.getId());
+            }
+        });
+    }
+    
+    private OrganizationIndex indexFor(Long organizationId) {
+        return indexes.computeIfAbsent(organizationId, id -> new OrganizationIndex());
+    }
+    
+    private record Entry(Long ticketId, int[] signature, Long duplicateOfId, LocalDateTime createdAt) {
+        
+        Long original() {
+            return duplicateOfId != null ? duplicateOfId : ticketId;
+        }
+    }
+    
+    private final class OrganizationIndex {
+        // Insertion order is creation order, so eviction by age or count always starts at the head
+        private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>();
+        private final List<Map<Long, Set<Long>>> bands = new ArrayList<>(MinHash.BANDS);
+        
+        OrganizationIndex() {
+            for (int band = 0; band < MinHash.BANDS; band++) {
+                bands.add(new HashMap<>());
+            }
+        }
+        
+        synchronized Long findOriginal(int[] signature) {
+            evictExpired();
+            Set<Long> candidates = new HashSet<>();
+            for (int band = 0; band < MinHash.BANDS; band++) {
+                Set<Long> bucket = bands.get(band).get(MinHash.bandKey(signature, band));
+                if (bucket != null) {
+                    candidates.addAll(bucket);
+                }
+            }
+            
+            Entry best = null;
+            double bestSimilarity = minSimilarity;
+            for (Long candidate : candidates) {
+                Entry entry = entries.get(candidate);
+                double similarity = MinHash.similarity(signature, entry.signature());
+                if (similarity > bestSimilarity || similarity == bestSimilarity
+                        && (best == null || entry.ticketId() < best.ticketId())) {
+                    best = entry;
+                    bestSimilarity = similarity;
+                }
+            }
+            return best != null ? best.original() : null;
+        }
+        
+        synchronized void add(Entry entry) {
+            remove(entry.ticketId());
+            entries.put(entry.ticketId(), entry);
+            for (int band = 0; band < MinHash.BANDS; band++) {
+                bands.get(band).computeIfAbsent(MinHash.bandKey(entry.signature(), band), key -> new HashSet<>())
+                        .add(entry.ticketId());
+            }
+            while (entries.size() > maxPerOrganization) {
+                remove(entries.firstEntry().getKey());
+            }
+            evictExpired();
+        }
+        
+        synchronized boolean contains(Long ticketId) {
+            return entries.containsKey(ticketId);
+        }
+        
+        synchronized void remove(Long ticketId) {
+            Entry entry = entries.remove(ticketId);
+            if (entry == null) {
+                return;
+            }
+            for (int band = 0; band < MinHash.BANDS; band++) {
+                long key = MinHash.bandKey(entry.signature(), band);
+                Set<Long> bucket = bands.get(band).get(key);
+                if (bucket != null && bucket.remove(ticketId) && bucket.isEmpty()) {
+                    bands.get(band).remove(key);
+                }
+            }
+        }
+        
+        private void evictExpired() {
+            LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry oldest = iterator.next();
+                if (oldest.createdAt() == null || !oldest.createdAt().isBefore(cutoff)) {
+                    return;
+                }
+                remove(oldest.ticketId());
+                iterator = entries.values().iterator();
+            }
+        }
+    }
+}
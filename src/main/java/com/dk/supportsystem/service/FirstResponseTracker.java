@@ -0,0 +1,60 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.repository.SlaConfigRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remembers tickets whose SLA first response is already settled, so that later messages on them cost no
+ * SLA query at all. Any other ticket gets the conditional UPDATE, which is a single indexed row hit; the
+ * database stays the source of truth, so a ticket created on another node is settled correctly even
+ * before this node hears about it.
+ */
+@Component
+@RequiredArgsConstructor
+public class FirstResponseTracker {
+
+    private static final int MAX_SETTLED = 100_000;
+
+    private final SlaConfigRepository slaConfigRepository;
+
+    private final Set<Long> settled = Collections.newSetFromMap(Collections.synchronizedMap(
+            new LinkedHashMap<>(1024, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                    return size() > MAX_SETTLED;
+                }
+            }));
+
+    /**
+     * For new and reopened tickets: their next message goes to the database again.
+     */
+    public void markUnsettled(Long ticketId) {
+        settled.remove(ticketId);
+    }
+
+    /**
+     * For closed tickets, which take no first response; applied once the close commits.
+     */
+    public void markSettled(Long ticketId) {
+        TransactionHooks.afterCommit(() -> settled.add(ticketId));
+    }
+
+    public boolean recordResponse(Long ticketId, boolean byAgent) {
+        if (settled.contains(ticketId)) {
+            return false;
+        }
+
+        int updated = slaConfigRepository.markFirstResponse(ticketId, LocalDateTime.now(), byAgent);
+
+        // Zero rows updated means another node got there first; either way the ticket is settled once committed
+        TransactionHooks.afterCommit(() -> settled.add(ticketId));
+        return updated > 0;
+    }
+}
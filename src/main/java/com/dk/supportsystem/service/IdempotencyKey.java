@@ -0,0 +1,16 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.enums.IdempotencyScope;
+import lombok.Value;
+
+@Value
+public class IdempotencyKey {
+    IdempotencyScope scope;
+    Long userId;
+    String key;
+    String requestHash;
+    
+    String cacheKey() {
+        return scope + ":" + userId + ":" + key;
+    }
+}
@@ -0,0 +1,69 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.cluster.ShardedJob;
+import com.dk.supportsystem.repository.IdempotencyRecordRepository;
+import com.dk.supportsystem.shard.ShardCatalog;
+import com.dk.supportsystem.shard.ShardContext;
+import com.dk.supportsystem.shard.ShardDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Deletes expired idempotency keys. A single shard, so exactly one node runs the purge.
+ */
+@Slf4j
+@Component
+public class IdempotencyPurgeJob implements ShardedJob {
+    
+    private final IdempotencyRecordRepository recordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardCatalog shardCatalog;
+    private final ShardDirectory shardDirectory;
+    private final Duration interval;
+    
+    public IdempotencyPurgeJob(IdempotencyRecordRepository recordRepository,
+                               TransactionTemplate transactionTemplate,
+                               ShardCatalog shardCatalog,
+                               ShardDirectory shardDirectory,
+                               @Value("${idempotency.purge-interval-ms}") long purgeIntervalMs) {
+        this.recordRepository = recordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardCatalog = shardCatalog;
+        this.shardDirectory = shardDirectory;
+        this.interval = Duration.ofMillis(purgeIntervalMs);
+    }
+    
+    @Override
+    public String name() {
+        return "idempotency-purge";
+    }
+    
+    @Override
+    public int shardCount() {
+        return 1;
+    }
+    
+    @Override
+    public Duration interval() {
+        return interval;
+    }
+    
+    @Override
+    public void run(int shard, int shardCount) {
+        shardCatalog.forEach(() -> {
+            Set<Long> moving = shardDirectory.movingOrganizations();
+            Integer purged = transactionTemplate.execute(status -> moving.isEmpty()
+                    ? recordRepository.deleteExpired(LocalDateTime.now())
+                    : recordRepository.deleteExpiredExcluding(LocalDateTime.now(), moving));
+            if (purged != null && purged > 0) {
+                log.debug("Purged {} expired idempotency keys in database {}", purged, ShardContext.current());
+            }
+        });
+    }
+}
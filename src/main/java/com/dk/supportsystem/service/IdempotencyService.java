@@ -0,0 +1,234 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.entity.IdempotencyRecord;
+import com.dk.supportsystem.enums.IdempotencyScope;
+import com.dk.supportsystem.exception.BadRequestException;
+import com.dk.supportsystem.exception.ConflictException;
+import com.dk.supportsystem.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Replays the result of a previously executed request that carried the same Idempotency-Key.
+ * Completed results live in a bounded in-memory map (requests still in flight are never evicted, so the
+ * map may briefly exceed its bound under load); the created resource id is also persisted in the
+ * same transaction as the resource itself, so replays survive restarts and work across nodes.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+    
+    private final IdempotencyRecordRepository recordRepository;
+    private final Duration ttl;
+    private final long waitTimeoutMs;
+    private final Map<String, Entry> entries;
+    
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                              @Value("${idempotency.ttl}") Duration ttl,
+                              @Value("${idempotency.max-entries}") int maxEntries,
+                              @Value("${idempotency.wait-timeout-ms}") long waitTimeoutMs) {
+        this.recordRepository = recordRepository;
+        this.ttl = ttl;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            // Only completed entries are evicted: dropping an in-flight one would let a retry run the action twice
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= maxEntries) {
+                    return false;
+                }
+                Iterator<Entry> it = values().iterator();
+                while (it.hasNext()) {
+                    if (it.next().result.isDone()) {
+                        it.remove();
+                        break;
+                    }
+                }
+                return false;
+            }
+        };
+    }
+    
+    /**
+     * The request hash is persisted with the key, so it is taken over the given request fields in a fixed
+     * encoding (each one length-prefixed, null as {@code -}) rather than over anything generated, such as
+     * a DTO's {@code toString()}, that could change between releases.
+     */
+    public IdempotencyKey keyFor(IdempotencyScope scope, Long userId, String key, Object... requestFields) {
+        if (key == null || key.isBlank()) {
+            return null;
+        }
+        if (key.length() > 255) {
+            throw new BadRequestException("Idempotency-Key cannot exceed 255 characters");
+        }
+        StringBuilder canonical = new StringBuilder(scope.name());
+        for (Object field : requestFields) {
+            canonical.append('|');
+            if (field == null) {
+                canonical.append('-');
+            } else {
+                String value = field.toString();
+                canonical.append(value.length()).append(':').append(value);
+            }
+        }
+        return new IdempotencyKey(scope, userId, key, sha256(canonical.toString()));
+    }
+    
+    public <T> T execute(IdempotencyKey key, Supplier<T> action, Function<Long, T> replay) {
+        if (key == null) {
+            return action.get();
+        }
+        
+        String cacheKey = key.cacheKey();
+        Entry entry = new Entry(key.getRequestHash(), LocalDateTime.now().plus(ttl));
+        Entry existing;
+        synchronized (entries) {
+            existing = entries.get(cacheKey);
+            if (existing != null && existing.isExpired()) {
+                entries.remove(cacheKey);
+                existing = null;
+            }
+            if (existing == null) {
+                entries.put(cacheKey, entry);
+            }
+        }
+        
+        if (existing != null) {
+            return awaitExisting(existing, key);
+        }
+        
+        try {
+            T result = executeOnce(key, action, replay);
+            entry.result.complete(result);
+            return result;
+        } catch (RuntimeException ex) {
+            synchronized (entries) {
+                entries.remove(cacheKey, entry);
+            }
+            entry.result.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+    
+    public void remember(IdempotencyKey key, Long resourceId) {
+        if (key == null) {
+            return;
+        }
+        recordRepository.saveAndFlush(IdempotencyRecord.builder()
+                .userId(key.getUserId())
+                .scope(key.getScope())
+                .idempotencyKey(key.getKey())
+                .requestHash(key.getRequestHash())
+                .resourceId(resourceId)
+                .expiresAt(LocalDateTime.now().plus(ttl))
+                .build());
+    }
+    
+    /**
+     * Drops expired entries from this node's cache; the persisted keys are purged once per cluster by
+     * {@link IdempotencyPurgeJob}.
+     */
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms}")
+    public void purgeExpired() {
+        synchronized (entries) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().isExpired()) {
+                    it.remove();
+                }
+            }
+        }
+    }
+    
+    private <T> T executeOnce(IdempotencyKey key, Supplier<T> action, Function<Long, T> replay) {
+        Optional<T> replayed = replayDurable(key, replay);
+        if (replayed.isPresent()) {
+            return replayed.get();
+        }
+        
+        try {
+            return action.get();
+        } catch (DataIntegrityViolationException ex) {
+            // Another node committed the same key first; its transaction has finished, so replay its result
+            return replayDurable(key, replay).orElseThrow(() -> ex);
+        }
+    }
+    
+    private <T> Optional<T> replayDurable(IdempotencyKey key, Function<Long, T> replay) {
+        Optional<IdempotencyRecord> record = recordRepository.findByUserIdAndScopeAndIdempotencyKey(
+                key.getUserId(), key.getScope(), key.getKey());
+        if (record.isEmpty() || record.get().getExpiresAt().isBefore(LocalDateTime.now())) {
+            return Optional.empty();
+        }
+        verifySameRequest(record.get().getRequestHash(), key);
+        return Optional.of(replay.apply(record.get().getResourceId()));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> T awaitExisting(Entry existing, IdempotencyKey key) {
+        verifySameRequest(existing.requestHash, key);
+        try {
+            return (T) existing.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new ConflictException("A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("A request with this Idempotency-Key is still in progress");
+        }
+    }
+    
+    private void verifySameRequest(String storedHash, IdempotencyKey key) {
+        if (!storedHash.equals(key.getRequestHash())) {
+            throw new BadRequestException("Idempotency-Key was already used with a different request");
+        }
+    }
+    
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static final class Entry {
+        private final String requestHash;
+        private final LocalDateTime expiresAt;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        
+        private Entry(String requestHash, LocalDateTime expiresAt) {
+            this.requestHash = requestHash;
+            this.expiresAt = expiresAt;
+        }
+        
+        private boolean isExpired() {
+            return expiresAt.isBefore(LocalDateTime.now());
+        }
+    }
+}
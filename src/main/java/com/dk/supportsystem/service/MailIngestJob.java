@@ -0,0 +1,47 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.cluster.ShardedJob;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Advances queued and running mail imports. Imports are spread over the shards by id, so several
+ * nodes can ingest different mailboxes at the same time while each import has a single writer.
+ */
+@Component
+public class MailIngestJob implements ShardedJob {
+    
+    private final MailIngestionService mailIngestionService;
+    private final int shards;
+    private final Duration interval;
+    
+    public MailIngestJob(MailIngestionService mailIngestionService,
+                         @Value("${jobs.mail-ingest.shards}") int shards,
+                         @Value("${jobs.mail-ingest.interval}") Duration interval) {
+        this.mailIngestionService = mailIngestionService;
+        this.shards = shards;
+        this.interval = interval;
+    }
+    
+    @Override
+    public String name() {
+        return "mail-ingest";
+    }
+    
+    @Override
+    public int shardCount() {
+        return shards;
+    }
+    
+    @Override
+    public Duration interval() {
+        return interval;
+    }
+    
+    @Override
+    public void run(int shard, int shardCount) {
+        mailIngestionService.runPending(shard, shardCount);
+    }
+}
@@ -0,0 +1,644 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.cluster.ClusterBus;
+import com.dk.supportsystem.dto.request.MailImportRequest;
+import com.dk.supportsystem.dto.response.MailImportResponse;
+import com.dk.supportsystem.entity.MailImport;
+import com.dk.supportsystem.entity.User;
+import com.dk.supportsystem.enums.MailImportStatus;
+import com.dk.supportsystem.enums.TicketEventType;
+import com.dk.supportsystem.enums.TicketStatus;
+import com.dk.supportsystem.enums.UserRole;
+import com.dk.supportsystem.exception.BadRequestException;
+import com.dk.supportsystem.exception.ResourceNotFoundException;
+import com.dk.supportsystem.mail.MailParser;
+import com.dk.supportsystem.mail.MailSource;
+import com.dk.supportsystem.mail.ParsedMail;
+import com.dk.supportsystem.mail.RawMail;
+import com.dk.supportsystem.repository.MailImportRepository;
+import com.dk.supportsystem.repository.MailThreadKeyRepository;
+import com.dk.supportsystem.repository.TicketRepository;
+import com.dk.supportsystem.repository.UserRepository;
+import com.dk.supportsystem.shard.ShardCatalog;
+import com.dk.supportsystem.shard.ShardContext;
+import com.dk.supportsystem.shard.ShardDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns mbox files and Maildirs below {@code mail-ingest.directory} into tickets and replies. Sources are
+ * streamed; every {@code mail-ingest.batch-size} messages are written with JDBC batches in one transaction
+ * together with the import's checkpoint, so a restarted import resumes exactly after the last committed
+ * batch. Replies find their ticket through the Message-IDs in In-Reply-To and References; messages whose
+ * Message-ID was already ingested are skipped. Imports run as a sharded job, one slice at a time.
+ */
+@Slf4j
+@Service
+public class MailIngestionService {
+    
+    private static final Set<MailImportStatus> ACTIVE_STATUSES = EnumSet.of(MailImportStatus.QUEUED, MailImportStatus.RUNNING);
+    private static final Pattern REPLY_PREFIX = Pattern.compile("^(?i)((re|fw|fwd|aw|wg)(\\[\\d+])?:\\s*)+");
+    private static final int MAX_TITLE_LENGTH = 500;
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int MAX_MESSAGE_ID_LENGTH = 998;
+    
+    private static final String INSERT_TICKET =
+            "INSERT INTO tickets (id, title, description, status, priority, organization_id, created_by, " +
+            "created_at, updated_at, resolved_at, closed_at, version, last_message_at, last_message_by, " +
+            "message_count, public_message_count, last_public_message_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?, ?, ?)";
+    
+    private static final String INSERT_MESSAGE =
+            "INSERT INTO ticket_messages (id, ticket_id, user_id, message, is_internal, created_at) " +
+            "VALUES (?, ?, ?, ?, false, ?)";
+    
+    private static final String INSERT_SLA =
+            "INSERT INTO sla_config (ticket_id, first_response_deadline, resolution_deadline, first_response_met, " +
+            "resolution_met, first_response_at, first_response_by_agent, created_at) VALUES (?, ?, ?, ?, false, ?, ?, ?)";
+    
+    // The same rule as addMessage: any message settles the first response, by an agent unless the creator wrote it
+    private static final String RECORD_FIRST_RESPONSE =
+            "UPDATE sla_config s SET first_response_met = true, first_response_at = ?, " +
+            "first_response_by_agent = (t.created_by <> ?) FROM tickets t " +
+            "WHERE s.ticket_id = ? AND t.id = s.ticket_id AND s.first_response_met = false AND t.status <> 'CLOSED'";
+    
+    // SET expressions all see the old row, so last_message_by compares against the previous last_message_at
+    private static final String RECORD_REPLIES =
+            "UPDATE tickets SET message_count = message_count + ?, public_message_count = public_message_count + ?, " +
+            "last_message_by = CASE WHEN last_message_at <= ? THEN ? ELSE last_message_by END, " +
+            "last_message_at = GREATEST(last_message_at, ?), " +
+            "last_public_message_at = GREATEST(last_public_message_at, ?) WHERE id = ?";
+    
+    private static final String INSERT_THREAD_KEY =
+            "INSERT INTO mail_message_ids (organization_id, message_id, ticket_id, created_at) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (organization_id, message_id) DO NOTHING";
+    
+    private static final String CHECKPOINT =
+            "UPDATE mail_imports SET status = 'RUNNING', checkpoint_file = ?, checkpoint_offset = ?, " +
+            "messages_read = messages_read + ?, tickets_created = tickets_created + ?, " +
+            "replies_added = replies_added + ?, skipped = skipped + ?, updated_at = ?, version = version + 1 " +
+            "WHERE id = ? AND version = ?";
+    
+    private static final String FINISH =
+            "UPDATE mail_imports SET status = ?, error = ?, finished_at = ?, updated_at = ?, version = version + 1 " +
+            "WHERE id = ? AND version = ?";
+    
+    private final MailImportRepository importRepository;
+    private final MailThreadKeyRepository threadKeyRepository;
+    private final UserRepository userRepository;
+    private final TicketRepository ticketRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardCatalog shardCatalog;
+    private final ShardDirectory shardDirectory;
+    private final TicketListCache listCache;
+    private final ClusterBus clusterBus;
+    private final TicketHistoryRecorder historyRecorder;
+    private final AgentWorkQueue workQueue;
+    private final DuplicateTicketDetector duplicateDetector;
+    private final Path root;
+    private final int batchSize;
+    private final int maxMessageBytes;
+    private final int maildirWindow;
+    private final Duration slice;
+    
+    public MailIngestionService(MailImportRepository importRepository,
+                                MailThreadKeyRepository threadKeyRepository,
+                                UserRepository userRepository,
+                                TicketRepository ticketRepository,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                ShardCatalog shardCatalog,
+                                ShardDirectory shardDirectory,
+                                TicketListCache listCache,
+                                ClusterBus clusterBus,
+                                TicketHistoryRecorder historyRecorder,
+                                AgentWorkQueue workQueue,
+                                DuplicateTicketDetector duplicateDetector,
+                                @Value("${mail-ingest.directory}") String directory,
+                                @Value("${mail-ingest.batch-size}") int batchSize,
+                                @Value("${mail-ingest.max-message-bytes}") int maxMessageBytes,
+                                @Value("${mail-ingest.maildir-window}") int maildirWindow,
+                                @Value("${mail-ingest.slice}") Duration slice) {
+        this.importRepository = importRepository;
+        this.threadKeyRepository = threadKeyRepository;
+        this.userRepository = userRepository;
+        this.ticketRepository = ticketRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardCatalog = shardCatalog;
+        this.shardDirectory = shardDirectory;
+        this.listCache = listCache;
+        this.clusterBus = clusterBus;
+        this.historyRecorder = historyRecorder;
+        this.workQueue = workQueue;
+        this.duplicateDetector = duplicateDetector;
+        this.root = Path.of(directory).toAbsolutePath().normalize();
+        this.batchSize = batchSize;
+        this.maxMessageBytes = maxMessageBytes;
+        this.maildirWindow = maildirWindow;
+        this.slice = slice;
+    }
+    
+    public MailImportResponse start(MailImportRequest request, Long userId) {
+        User admin = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        if (admin.getRole() != UserRole.ADMIN) {
+            throw new BadRequestException("Only admins can import mail");
+        }
+        Path path = resolve(request.getSource());
+        if (!Files.exists(path)) {
+            throw new BadRequestException("Mail source not found");
+        }
+        
+        MailImport mailImport = importRepository.save(MailImport.builder()
+                .organizationId(admin.getOrganization().getId())
+                .requestedBy(admin.getId())
+                .source(root.relativize(path).toString())
+                .format(request.getFormat())
+                .ticketStatus(request.getTicketStatus())
+                .priority(request.getPriority())
+                .status(MailImportStatus.QUEUED)
+                .build());
+        log.info("Queued {} mail import {} of {} for organization {}",
+                mailImport.getFormat(), mailImport.getId(), mailImport.getSource(), mailImport.getOrganizationId());
+        return mapToResponse(mailImport);
+    }
+    
+    public MailImportResponse getImport(Long importId, Long userId) {
+        Long organizationId = userRepository.findOrganizationIdById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return importRepository.findByIdAndOrganizationId(importId, organizationId)
+                .map(this::mapToResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Mail import not found"));
+    }
+    
+    /**
+     * Works on the active imports of one job shard until they are done or the slice is used up.
+     */
+    public void runPending(int shard, int shardCount) {
+        long deadline = System.nanoTime() + slice.toNanos();
+        shardCatalog.forEach(() -> {
+            for (Long importId : importRepository.findIdsToRun(ACTIVE_STATUSES, shard, shardCount)) {
+                if (System.nanoTime() >= deadline) {
+                    return;
+                }
+                importRepository.findById(importId).ifPresent(mailImport -> ingest(mailImport, deadline));
+            }
+        });
+    }
+    
+    private void ingest(MailImport mailImport, long deadline) {
+        try (MailSource source = MailSource.open(mailImport.getFormat(), resolve(mailImport.getSource()),
+                mailImport.getCheckpointFile(), mailImport.getCheckpointOffset(), maxMessageBytes, maildirWindow)) {
+            List<Pending> batch = new ArrayList<>(batchSize);
+            
+            while (System.nanoTime() < deadline && writable(mailImport)) {
+                RawMail raw = source.next();
+                if (raw != null) {
+                    batch.add(new Pending(parse(raw), raw));
+                    if (batch.size() < batchSize) {
+                        continue;
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    write(mailImport, batch);
+                    batch.clear();
+                }
+                if (raw == null) {
+                    finish(mailImport, MailImportStatus.COMPLETED, null);
+                    return;
+                }
+            }
+            if (!batch.isEmpty() && writable(mailImport)) {
+                write(mailImport, batch);
+            }
+        } catch (IOException e) {
+            log.warn("Mail import {} failed", mailImport.getId(), e);
+            finish(mailImport, MailImportStatus.FAILED, e.getClass().getSimpleName() + ": " + e.getMessage());
+        } catch (LostOwnershipException e) {
+            log.info("Mail import {} was advanced by another node, stopping", mailImport.getId());
+        } catch (DataAccessException e) {
+            // If the database is unreachable this throws too, and the import is retried from its checkpoint
+            log.warn("Mail import {} failed", mailImport.getId(), e);
+            finish(mailImport, MailImportStatus.FAILED, "Database error: " + e.getMostSpecificCause().getMessage());
+        }
+    }
+    
+    private static ParsedMail parse(RawMail raw) {
+        try {
+            return MailParser.parse(raw.content());
+        } catch (RuntimeException e) {
+            log.debug("Skipping unreadable message in {} at {}", raw.file(), raw.offset(), e);
+            return null;
+        }
+    }
+    
+    // A message the database rejects fails its whole batch; retry that batch one message at a time to skip it
+    private void write(MailImport mailImport, List<Pending> batch) {
+        try {
+            writeBatch(mailImport, batch);
+        } catch (DataIntegrityViolationException e) {
+            log.info("Batch of mail import {} was rejected ({}), writing its messages one by one",
+                    mailImport.getId(), e.getMostSpecificCause().getMessage());
+            for (Pending pending : batch) {
+                try {
+                    writeBatch(mailImport, List.of(pending));
+                } catch (DataIntegrityViolationException single) {
+                    log.warn("Skipping message in {} at {} of mail import {}: {}", pending.raw().file(),
+                            pending.raw().offset(), mailImport.getId(), single.getMostSpecificCause().getMessage());
+                    writeBatch(mailImport, List.of(new Pending(null, pending.raw())));
+                }
+            }
+        }
+    }
+    
+    // A tenant that is moving or has moved away must not get new rows on this shard
+    private boolean writable(MailImport mailImport) {
+        Long organizationId = mailImport.getOrganizationId();
+        return !shardDirectory.isMoving(organizationId)
+                && shardDirectory.shardOf(organizationId).equals(ShardContext.current());
+    }
+    
+    private void writeBatch(MailImport mailImport, List<Pending> pending) {
+        Long organizationId = mailImport.getOrganizationId();
+        List<ParsedMail> mails = new ArrayList<>(pending.size());
+        for (Pending entry : pending) {
+            if (entry.mail() != null) {
+                mails.add(entry.mail());
+            }
+        }
+        int unreadable = pending.size() - mails.size();
+        RawMail checkpoint = pending.get(pending.size() - 1).raw();
+        Batch batch = transactionTemplate.execute(status -> {
+            Batch planned = plan(mailImport, mails);
+            planned.skipped += unreadable;
+            insert(mailImport, planned);
+            
+            LocalDateTime now = LocalDateTime.now();
+            int updated = jdbcTemplate.update(CHECKPOINT, checkpoint.file(), checkpoint.offset(),
+                    mails.size() + unreadable, planned.created.size(), planned.replies.size(), planned.skipped,
+                    Timestamp.valueOf(now), mailImport.getId(), mailImport.getVersion());
+            if (updated == 0) {
+                throw new LostOwnershipException();
+            }
+            if (!planned.created.isEmpty() || !planned.replies.isEmpty()) {
+                listCache.invalidate(organizationId);
+                notifyChanged(organizationId, planned);
+            }
+            return planned;
+        });
+        
+        mailImport.setVersion(mailImport.getVersion() + 1);
+        if (batch != null) {
+            log.debug("Mail import {}: {} tickets, {} replies, {} skipped up to {}@{}", mailImport.getId(),
+                    batch.created.size(), batch.replies.size(), batch.skipped, checkpoint.file(), checkpoint.offset());
+        }
+    }
+    
+    // Other nodes hear about the tickets through the bus, which skips this node's own notices
+    private void notifyChanged(Long organizationId, Batch batch) {
+        Set<Long> created = new HashSet<>();
+        for (MailThread thread : batch.created) {
+            created.add(thread.ticketId);
+            clusterBus.ticketChanged(organizationId, thread.ticketId);
+        }
+        Set<Long> updated = new HashSet<>();
+        for (MailThread thread : batch.updated) {
+            updated.add(thread.ticketId);
+            clusterBus.ticketChanged(organizationId, thread.ticketId);
+        }
+        TransactionHooks.afterCommit(() -> {
+            if (!created.isEmpty()) {
+                duplicateDetector.onTicketsChanged(created);
+            }
+            if (!updated.isEmpty()) {
+                workQueue.onTicketsChanged(updated);
+            }
+        });
+    }
+    
+    private Batch plan(MailImport mailImport, List<ParsedMail> mails) {
+        Long organizationId = mailImport.getOrganizationId();
+        Set<String> messageIds = new HashSet<>();
+        Set<String> senders = new HashSet<>();
+        for (ParsedMail mail : mails) {
+            messageIds.add(mail.messageId());
+            messageIds.addAll(mail.references());
+            if (mail.fromAddress() != null) {
+                senders.add(mail.fromAddress());
+            }
+        }
+        
+        Map<String, Long> known = new HashMap<>();
+        if (!messageIds.isEmpty()) {
+            threadKeyRepository.findByOrganizationIdAndMessageIdIn(organizationId, messageIds)
+                    .forEach(key -> known.put(key.getMessageId(), key.getTicketId()));
+        }
+        // Tickets that were archived since keep their keys but can no longer take replies
+        Set<Long> live = new HashSet<>();
+        if (!known.isEmpty()) {
+            live.addAll(ticketRepository.findExistingIds(new HashSet<>(known.values())));
+        }
+        Map<String, Long> users = new HashMap<>();
+        if (!senders.isEmpty()) {
+            userRepository.findByOrganizationIdAndEmailIn(organizationId, senders)
+                    .forEach(user -> users.put(user.getEmail(), user.getId()));
+        }
+        
+        Batch batch = new Batch();
+        Map<Long, MailThread> existing = new HashMap<>();
+        Map<String, MailThread> threads = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (ParsedMail mail : mails) {
+            if (mail.messageId().length() > MAX_MESSAGE_ID_LENGTH
+                    || known.containsKey(mail.messageId()) || threads.containsKey(mail.messageId())) {
+                batch.skipped++;
+                continue;
+            }
+            Long author = users.getOrDefault(mail.fromAddress(), mailImport.getRequestedBy());
+            String text = textOf(mail, users.containsKey(mail.fromAddress()));
+            LocalDateTime at = mail.date() != null ? mail.date() : now;
+            
+            MailThread thread = null;
+            for (String reference : mail.references()) {
+                thread = threads.get(reference);
+                if (thread == null && live.contains(known.get(reference))) {
+                    thread = existing.computeIfAbsent(known.get(reference), MailThread::existing);
+                }
+                if (thread != null) {
+                    break;
+                }
+            }
+            
+            if (thread == null) {
+                thread = MailThread.created(titleOf(mail), text, author, at);
+                batch.created.add(thread);
+            } else {
+                thread.addReply(author, at);
+                batch.replies.add(new Reply(thread, author, text, at));
+            }
+            threads.put(mail.messageId(), thread);
+            batch.keys.add(new Key(mail.messageId(), thread));
+        }
+        batch.updated.addAll(existing.values());
+        return batch;
+    }
+    
+    private void insert(MailImport mailImport, Batch batch) {
+        if (!batch.created.isEmpty()) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT nextval(pg_get_serial_sequence('tickets', 'id')) FROM generate_series(1, ?)",
+                    Long.class, batch.created.size());
+            List<Object[]> rows = new ArrayList<>(batch.created.size());
+            for (int i = 0; i < batch.created.size(); i++) {
+                MailThread thread = batch.created.get(i);
+                thread.ticketId = ids.get(i);
+                LocalDateTime lastActivity = thread.lastReplyAt != null && thread.lastReplyAt.isAfter(thread.createdAt)
+                        ? thread.lastReplyAt : thread.createdAt;
+                TicketStatus status = mailImport.getTicketStatus();
+                rows.add(new Object[]{
+                        thread.ticketId, thread.title, thread.description, status.name(),
+                        mailImport.getPriority().name(), mailImport.getOrganizationId(), thread.createdBy,
+                        timestamp(thread.createdAt), timestamp(lastActivity),
+                        status == TicketStatus.RESOLVED || status == TicketStatus.CLOSED ? timestamp(lastActivity) : null,
+                        status == TicketStatus.CLOSED ? timestamp(lastActivity) : null,
+                        timestamp(lastActivity), thread.lastReplyBy, thread.replies, thread.replies,
+                        timestamp(thread.lastReplyAt)
+                });
+            }
+            jdbcTemplate.batchUpdate(INSERT_TICKET, rows);
+            insertSla(mailImport, batch.created);
+            for (MailThread thread : batch.created) {
+                recordCreated(mailImport, thread);
+            }
+        }
+        
+        if (!batch.replies.isEmpty()) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT nextval(pg_get_serial_sequence('ticket_messages', 'id')) FROM generate_series(1, ?)",
+                    Long.class, batch.replies.size());
+            List<Object[]> rows = new ArrayList<>(batch.replies.size());
+            for (int i = 0; i < batch.replies.size(); i++) {
+                Reply reply = batch.replies.get(i);
+                rows.add(new Object[]{ids.get(i), reply.thread().ticketId, reply.userId(), reply.text(), timestamp(reply.at())});
+                historyRecorder.record(reply.thread().ticketId, mailImport.getOrganizationId(), TicketEvent.builder()
+                        .type(TicketEventType.MESSAGE_ADDED)
+                        .actorId(reply.userId())
+                        .occurredAt(reply.at())
+                        .toValue(ids.get(i))
+                        .build());
+            }
+            jdbcTemplate.batchUpdate(INSERT_MESSAGE, rows);
+        }
+        
+        if (!batch.updated.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(batch.updated.size());
+            for (MailThread thread : batch.updated) {
+                Timestamp lastReplyAt = timestamp(thread.lastReplyAt);
+                rows.add(new Object[]{thread.replies, thread.replies, lastReplyAt, thread.lastReplyBy,
+                        lastReplyAt, lastReplyAt, thread.ticketId});
+            }
+            jdbcTemplate.batchUpdate(RECORD_REPLIES, rows);
+            
+            List<Object[]> responses = new ArrayList<>(batch.updated.size());
+            for (MailThread thread : batch.updated) {
+                responses.add(new Object[]{timestamp(thread.firstReplyAt), thread.firstReplyBy, thread.ticketId});
+            }
+            jdbcTemplate.batchUpdate(RECORD_FIRST_RESPONSE, responses);
+        }
+        
+        if (!batch.keys.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(batch.keys.size());
+            for (Key key : batch.keys) {
+                rows.add(new Object[]{mailImport.getOrganizationId(), key.messageId(), key.thread().ticketId, now});
+            }
+            jdbcTemplate.batchUpdate(INSERT_THREAD_KEY, rows);
+        }
+    }
+    
+    // Deadlines count from the mail's date, as they would have had the ticket been opened through the API then
+    private void insertSla(MailImport mailImport, List<MailThread> created) {
+        int hours = TicketService.firstResponseHours(mailImport.getPriority());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(created.size());
+        for (MailThread thread : created) {
+            boolean responded = thread.firstReplyAt != null;
+            rows.add(new Object[]{
+                    thread.ticketId, timestamp(thread.createdAt.plusHours(hours)),
+                    timestamp(thread.createdAt.plusHours(hours * 4L)), responded, timestamp(thread.firstReplyAt),
+                    responded ? !thread.firstReplyBy.equals(thread.createdBy) : null, now
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SLA, rows);
+    }
+    
+    private void recordCreated(MailImport mailImport, MailThread thread) {
+        Long organizationId = mailImport.getOrganizationId();
+        historyRecorder.record(thread.ticketId, organizationId, TicketEvent.builder()
+                .type(TicketEventType.CREATED)
+                .actorId(thread.createdBy)
+                .occurredAt(thread.createdAt)
+                .toValue((long) mailImport.getPriority().getCode())
+                .build());
+        if (mailImport.getTicketStatus() != TicketStatus.OPEN) {
+            historyRecorder.record(thread.ticketId, organizationId, TicketEvent.builder()
+                    .type(TicketEventType.STATUS_CHANGED)
+                    .actorId(mailImport.getRequestedBy())
+                    .occurredAt(thread.createdAt)
+                    .fromValue((long) TicketStatus.OPEN.getCode())
+                    .toValue((long) mailImport.getTicketStatus().getCode())
+                    .build());
+        }
+    }
+    
+    private void finish(MailImport mailImport, MailImportStatus status, String error) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String message = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        if (jdbcTemplate.update(FINISH, status.name(), message, now, now, mailImport.getId(), mailImport.getVersion()) > 0) {
+            mailImport.setVersion(mailImport.getVersion() + 1);
+            log.info("Mail import {} {}", mailImport.getId(), status.name().toLowerCase());
+        }
+    }
+    
+    private Path resolve(String source) {
+        Path path = root.resolve(source).normalize();
+        if (!path.startsWith(root)) {
+            throw new BadRequestException("Mail source must be inside the mail directory");
+        }
+        return path;
+    }
+    
+    private static String titleOf(ParsedMail mail) {
+        String subject = mail.subject() != null ? REPLY_PREFIX.matcher(mail.subject()).replaceFirst("") : "";
+        subject = clean(subject).strip();
+        if (subject.isEmpty()) {
+            return "(no subject)";
+        }
+        return subject.length() > MAX_TITLE_LENGTH ? subject.substring(0, MAX_TITLE_LENGTH) : subject;
+    }
+    
+    // Senders without an account are attributed to the importing admin, so keep who actually wrote it
+    private static String textOf(ParsedMail mail, boolean knownAuthor) {
+        String body = mail.body().isEmpty() ? "(no content)" : clean(mail.body());
+        if (knownAuthor || mail.fromAddress() == null) {
+            return body;
+        }
+        String from = mail.fromName() != null
+                ? clean(mail.fromName()) + " <" + mail.fromAddress() + ">"
+                : mail.fromAddress();
+        return "From: " + from + "\n\n" + body;
+    }
+    
+    // PostgreSQL text cannot hold NUL characters
+    private static String clean(String value) {
+        return value.indexOf('\u0000') >= 0 ? value.replace("\u0000", "") : value;
+    }
+    
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+    
+    private MailImportResponse mapToResponse(MailImport mailImport) {
+        return MailImportResponse.builder()
+                .id(mailImport.getId())
+                .source(mailImport.getSource())
+                .format(mailImport.getFormat())
+                .status(mailImport.getStatus())
+                .checkpointFile(mailImport.getCheckpointFile())
+                .checkpointOffset(mailImport.getCheckpointOffset())
+                .messagesRead(mailImport.getMessagesRead())
+                .ticketsCreated(mailImport.getTicketsCreated())
+                .repliesAdded(mailImport.getRepliesAdded())
+                .skipped(mailImport.getSkipped())
+                .error(mailImport.getError())
+                .createdAt(mailImport.getCreatedAt())
+                .updatedAt(mailImport.getUpdatedAt())
+                .finishedAt(mailImport.getFinishedAt())
+                .build();
+    }
+    
+    /**
+     * A ticket touched by the current batch: either created by it, or existing and receiving replies.
+     */
+    private static final class MailThread {
+        private Long ticketId;
+        private String title;
+        private String description;
+        private Long createdBy;
+        private LocalDateTime createdAt;
+        private int replies;
+        private LocalDateTime lastReplyAt;
+        private Long lastReplyBy;
+        private LocalDateTime firstReplyAt;
+        private Long firstReplyBy;
+        
+        static MailThread existing(Long ticketId) {
+            MailThread thread = new MailThread();
+            thread.ticketId = ticketId;
+            return thread;
+        }
+        
+        static MailThread created(String title, String description, Long createdBy, LocalDateTime createdAt) {
+            MailThread thread = new MailThread();
+            thread.title = title;
+            thread.description = description;
+            thread.createdBy = createdBy;
+            thread.createdAt = createdAt;
+            return thread;
+        }
+        
+        void addReply(Long userId, LocalDateTime at) {
+            replies++;
+            if (firstReplyAt == null || at.isBefore(firstReplyAt)) {
+                firstReplyAt = at;
+                firstReplyBy = userId;
+            }
+            if (lastReplyAt == null || !at.isBefore(lastReplyAt)) {
+                lastReplyAt = at;
+                lastReplyBy = userId;
+            }
+        }
+    }
+    
+    private static final class Batch {
+        private final List<MailThread> created = new ArrayList<>();
+        private final List<MailThread> updated = new ArrayList<>();
+        private final List<Reply> replies = new ArrayList<>();
+        private final List<Key> keys = new ArrayList<>();
+        private int skipped;
+    }
+    
+    private record Pending(ParsedMail mail, RawMail raw) {
+    }
+    
+    private record Reply(MailThread thread, Long userId, String text, LocalDateTime at) {
+    }
+    
+    private record Key(String messageId, MailThread thread) {
+    }
+    
+    private static final class LostOwnershipException extends RuntimeException {
+    }
+}
@@ -0,0 +1,104 @@
+package com.dk.supportsystem.service;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signatures over character shingles of normalized text. Two signatures agree in a given slot
+ * with probability equal to the Jaccard similarity of the underlying shingle sets.
+ */
+final class MinHash {
+    
+    static final int BANDS = 16;
+    static final int ROWS = 4;
+    static final int SIZE = BANDS * ROWS;
+    
+    private static final int SHINGLE_LENGTH = 4;
+    private static final int MAX_TEXT_CHARS = 2000;
+    
+    // Multiply-shift hash family: (a * x + b) >>> 32 with odd a
+    private static final long[] A = new long[SIZE];
+    private static final long[] B = new long[SIZE];
+    
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_CAFEL);
+        for (int i = 0; i < SIZE; i++) {
+            A[i] = random.nextLong() | 1L;
+            B[i] = random.nextLong();
+        }
+    }
+    
+    private MinHash() {
+    }
+    
+    static int[] signature(String text) {
+        char[] normalized = normalize(text);
+        int[] signature = new int[SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        
+        int shingles = Math.max(1, normalized.length - SHINGLE_LENGTH + 1);
+        for (int start = 0; start < shingles; start++) {
+            long hash = 0;
+            int end = Math.min(start + SHINGLE_LENGTH, normalized.length);
+            for (int i = start; i < end; i++) {
+                hash = hash * 31 + normalized[i];
+            }
+            hash = mix(hash);
+            for (int i = 0; i < SIZE; i++) {
+                int value = (int) ((A[i] * hash + B[i]) >>> 33);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+    
+    static double similarity(int[] left, int[] right) {
+        int equal = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (left[i] == right[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIZE;
+    }
+    
+    static long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i++) {
+            key = key * 0x9E3779B97F4A7C15L + signature[i];
+        }
+        return key;
+    }
+    
+    // Lower-case letters and digits; every other run of characters becomes a single space
+    private static char[] normalize(String text) {
+        int limit = Math.min(text.length(), MAX_TEXT_CHARS);
+        char[] out = new char[limit];
+        int length = 0;
+        boolean space = true;
+        for (int i = 0; i < limit; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                out[length++] = Character.toLowerCase(c);
+                space = false;
+            } else if (!space) {
+                out[length++] = ' ';
+                space = true;
+            }
+        }
+        if (length > 0 && out[length - 1] == ' ') {
+            length--;
+        }
+        return Arrays.copyOf(out, length);
+    }
+    
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+}
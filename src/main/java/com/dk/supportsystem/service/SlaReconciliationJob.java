@@ -0,0 +1,78 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.cluster.ShardedJob;
+import com.dk.supportsystem.enums.TicketStatus;
+import com.dk.supportsystem.repository.SlaConfigRepository;
+import com.dk.supportsystem.shard.ShardCatalog;
+import com.dk.supportsystem.shard.ShardContext;
+import com.dk.supportsystem.shard.ShardDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Marks the resolution SLA as met for tickets that were resolved before their deadline. Sharded by
+ * organization, so each node only sweeps its share of organizations.
+ */
+@Slf4j
+@Component
+public class SlaReconciliationJob implements ShardedJob {
+    
+    private static final Set<TicketStatus> RESOLVED_STATUSES = EnumSet.of(TicketStatus.RESOLVED, TicketStatus.CLOSED);
+    
+    private final SlaConfigRepository slaConfigRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardCatalog shardCatalog;
+    private final ShardDirectory shardDirectory;
+    private final int shardCount;
+    private final Duration interval;
+    
+    public SlaReconciliationJob(SlaConfigRepository slaConfigRepository,
+                                TransactionTemplate transactionTemplate,
+                                ShardCatalog shardCatalog,
+                                ShardDirectory shardDirectory,
+                                @Value("${jobs.sla-reconciliation.shards}") int shardCount,
+                                @Value("${jobs.sla-reconciliation.interval}") Duration interval) {
+        this.slaConfigRepository = slaConfigRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardCatalog = shardCatalog;
+        this.shardDirectory = shardDirectory;
+        this.shardCount = shardCount;
+        this.interval = interval;
+    }
+    
+    @Override
+    public String name() {
+        return "sla-reconciliation";
+    }
+    
+    @Override
+    public int shardCount() {
+        return shardCount;
+    }
+    
+    @Override
+    public Duration interval() {
+        return interval;
+    }
+    
+    @Override
+    public void run(int shard, int shardCount) {
+        // Job shards split organizations; every tenant database holds some of each
+        shardCatalog.forEach(() -> {
+            Set<Long> moving = shardDirectory.movingOrganizations();
+            Integer updated = transactionTemplate.execute(status -> moving.isEmpty()
+                    ? slaConfigRepository.markResolutionMet(RESOLVED_STATUSES, shard, shardCount)
+                    : slaConfigRepository.markResolutionMetExcluding(RESOLVED_STATUSES, shard, shardCount, moving));
+            if (updated != null && updated > 0) {
+                log.debug("Marked resolution SLA met for {} tickets in shard {}/{} of database {}",
+                        updated, shard, shardCount, ShardContext.current());
+            }
+        });
+    }
+}
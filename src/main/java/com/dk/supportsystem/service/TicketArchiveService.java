@@ -0,0 +1,223 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.archive.ArchivedAttachment;
+import com.dk.supportsystem.archive.ArchivedMessage;
+import com.dk.supportsystem.archive.ArchivedTicket;
+import com.dk.supportsystem.archive.TicketArchiveStore;
+import com.dk.supportsystem.cluster.ClusterBus;
+import com.dk.supportsystem.cluster.ShardedJob;
+import com.dk.supportsystem.entity.MessageAttachment;
+import com.dk.supportsystem.entity.SlaConfig;
+import com.dk.supportsystem.entity.Ticket;
+import com.dk.supportsystem.entity.TicketMessage;
+import com.dk.supportsystem.repository.MessageAttachmentRepository;
+import com.dk.supportsystem.repository.SlaConfigRepository;
+import com.dk.supportsystem.repository.TicketMessageRepository;
+import com.dk.supportsystem.repository.TicketRepository;
+import com.dk.supportsystem.shard.ShardCatalog;
+import com.dk.supportsystem.shard.ShardDirectory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves tickets closed for {@code archive.closed-after-days} to the archive store. A single shard, so
+ * exactly one node appends to the shared archive directory at a time.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TicketArchiveService implements ShardedJob {
+
+    private final TicketRepository ticketRepository;
+    private final TicketMessageRepository messageRepository;
+    private final SlaConfigRepository slaConfigRepository;
+    private final MessageAttachmentRepository attachmentRepository;
+    private final TicketArchiveStore archiveStore;
+    private final TransactionTemplate transactionTemplate;
+    private final TicketListCache listCache;
+    private final ClusterBus clusterBus;
+    private final ShardCatalog shardCatalog;
+    private final ShardDirectory shardDirectory;
+
+    @Value("${archive.enabled}")
+    private boolean enabled;
+
+    @Value("${archive.closed-after-days}")
+    private int closedAfterDays;
+
+    @Value("${archive.batch-size}")
+    private int batchSize;
+
+    @Value("${archive.block-size}")
+    private int blockSize;
+
+    @Value("${archive.interval}")
+    private Duration interval;
+
+    @Override
+    public String name() {
+        return "ticket-archive";
+    }
+
+    @Override
+    public int shardCount() {
+        return 1;
+    }
+
+    @Override
+    public Duration interval() {
+        return interval;
+    }
+
+    @Override
+    public void run(int shard, int shardCount) {
+        if (!enabled) {
+            return;
+        }
+        shardCatalog.forEach(this::archiveShard);
+    }
+
+    private void archiveShard() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(closedAfterDays);
+        long afterId = 0L;
+        int archived = 0;
+
+        while (true) {
+            List<Long> ids = ticketRepository.findClosedIdsBefore(cutoff, afterId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            Integer count = transactionTemplate.execute(status -> archiveBatch(ids));
+            archived += count != null ? count : 0;
+            afterId = ids.get(ids.size() - 1);
+        }
+
+        if (archived > 0) {
+            log.info("Archived {} tickets closed before {}", archived, cutoff);
+        }
+    }
+
+    private int archiveBatch(List<Long> candidateIds) {
+        // Tickets of an organization that is being moved stay where they are until the move is over
+        List<Ticket> tickets = ticketRepository.findAllById(candidateIds).stream()
+                .filter(t -> !shardDirectory.isMoving(t.getOrganization().getId()))
+                .toList();
+        if (tickets.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = tickets.stream().map(Ticket::getId).toList();
+        Map<Long, List<TicketMessage>> messagesByTicket = messageRepository.findByTicketIdInOrderByIdAsc(ids)
+                .stream()
+                .collect(Collectors.groupingBy(m -> m.getTicket().getId()));
+        List<Long> messageIds = messagesByTicket.values().stream()
+                .flatMap(List::stream)
+                .map(TicketMessage::getId)
+                .toList();
+        Map<Long, List<MessageAttachment>> attachmentsByMessage = attachmentRepository
+                .findByMessageIdInOrderByIdAsc(messageIds)
+                .stream()
+                .collect(Collectors.groupingBy(a -> a.getMessage().getId()));
+        Map<Long, SlaConfig> slaByTicket = slaConfigRepository.findByTicketIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(s -> s.getTicket().getId(), Function.identity()));
+
+        List<ArchivedTicket> archived = tickets.stream()
+                .sorted(Comparator.comparing(Ticket::getId))
+                .map(t -> toArchived(t, messagesByTicket.getOrDefault(t.getId(), List.of()),
+                        attachmentsByMessage, slaByTicket.get(t.getId())))
+                .toList();
+
+        // Segment data is fsynced before the hot rows go away, so a crash here can only duplicate, never lose
+        try {
+            for (int from = 0; from < archived.size(); from += blockSize) {
+                archiveStore.append(archived.subList(from, Math.min(from + blockSize, archived.size())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write archive block", e);
+        }
+
+        List<Long> archivedIds = archived.stream().map(ArchivedTicket::getId).toList();
+        slaConfigRepository.deleteByTicketIdIn(archivedIds);
+        attachmentRepository.deleteByTicketIdIn(archivedIds);
+        messageRepository.deleteByTicketIdIn(archivedIds);
+        ticketRepository.deleteByIdIn(archivedIds);
+        
+        archived.stream().map(ArchivedTicket::getOrganizationId).distinct().forEach(organizationId -> {
+            listCache.invalidate(organizationId);
+            clusterBus.organizationChanged(organizationId);
+        });
+        return archivedIds.size();
+    }
+
+    private ArchivedTicket toArchived(Ticket ticket, List<TicketMessage> messages,
+                                      Map<Long, List<MessageAttachment>> attachmentsByMessage, SlaConfig sla) {
+        List<ArchivedMessage> archivedMessages = new ArrayList<>(messages.size());
+        for (TicketMessage message : messages) {
+            archivedMessages.add(ArchivedMessage.builder()
+                    .id(message.getId())
+                    .userId(message.getUser().getId())
+                    .message(message.getMessage())
+                    .isInternal(message.getIsInternal())
+                    .createdAt(message.getCreatedAt())
+                    .attachments(attachmentsByMessage.getOrDefault(message.getId(), List.of()).stream()
+                            .map(this::toArchived)
+                            .toList())
+                    .build());
+        }
+
+        ArchivedTicket.ArchivedTicketBuilder builder = ArchivedTicket.builder()
+                .id(ticket.getId())
+                .title(ticket.getTitle())
+                .description(ticket.getDescription())
+                .status(ticket.getStatus())
+                .priority(ticket.getPriority())
+                .organizationId(ticket.getOrganization().getId())
+                .createdById(ticket.getCreatedBy().getId())
+                .assignedToId(ticket.getAssignedTo() != null ? ticket.getAssignedTo().getId() : null)
+                .createdAt(ticket.getCreatedAt())
+                .updatedAt(ticket.getUpdatedAt())
+                .resolvedAt(ticket.getResolvedAt())
+                .closedAt(ticket.getClosedAt())
+                .duplicateOfId(ticket.getDuplicateOfId())
+                .messages(archivedMessages);
+
+        if (sla != null) {
+            builder.hasSla(true)
+                    .firstResponseDeadline(sla.getFirstResponseDeadline())
+                    .resolutionDeadline(sla.getResolutionDeadline())
+                    .firstResponseMet(sla.getFirstResponseMet())
+                    .firstResponseAt(sla.getFirstResponseAt())
+                    .firstResponseByAgent(sla.getFirstResponseByAgent())
+                    .resolutionMet(sla.getResolutionMet())
+                    .slaCreatedAt(sla.getCreatedAt());
+        }
+        return builder.build();
+    }
+
+    private ArchivedAttachment toArchived(MessageAttachment attachment) {
+        return ArchivedAttachment.builder()
+                .id(attachment.getId())
+                .fileName(attachment.getFileName())
+                .contentType(attachment.getContentType())
+                .sizeBytes(attachment.getSizeBytes())
+                .sha256(attachment.getSha256())
+                .createdAt(attachment.getCreatedAt())
+                .build();
+    }
+}
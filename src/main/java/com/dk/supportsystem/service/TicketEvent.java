@@ -0,0 +1,23 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.enums.TicketEventType;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a ticket's history. {@code fromValue}/{@code toValue} hold user ids for ASSIGNED,
+ * enum ordinals for STATUS_CHANGED and PRIORITY_CHANGED (CREATED carries the initial priority in
+ * {@code toValue}), and the message id for MESSAGE_ADDED.
+ */
+@Value
+@Builder
+public class TicketEvent {
+    TicketEventType type;
+    Long actorId;
+    LocalDateTime occurredAt;
+    Long fromValue;
+    Long toValue;
+    boolean internal;
+}
@@ -0,0 +1,92 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.enums.TicketEventType;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Varint encoding for a batch of ticket events. Timestamps are stored as millisecond offsets from the
+ * row's created_at and nullable ids as {@code value + 1}, so a typical event takes 4-8 bytes.
+ */
+final class TicketEventCodec {
+    
+    private TicketEventCodec() {
+    }
+    
+    static byte[] encode(List<TicketEvent> events, LocalDateTime base) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 * events.size() + 1);
+        writeVarLong(out, events.size());
+        for (TicketEvent event : events) {
+            out.write((event.getType().getCode() << 1) | (event.isInternal() ? 1 : 0));
+            writeNullable(out, event.getActorId());
+            writeVarLong(out, zigZag(Duration.between(base, event.getOccurredAt()).toMillis()));
+            writeNullable(out, event.getFromValue());
+            writeNullable(out, event.getToValue());
+        }
+        return out.toByteArray();
+    }
+    
+    static List<TicketEvent> decode(byte[] bytes, LocalDateTime base) {
+        int[] position = {0};
+        int count = (int) readVarLong(bytes, position);
+        List<TicketEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int header = bytes[position[0]++] & 0xFF;
+            events.add(TicketEvent.builder()
+                    .type(TicketEventType.fromCode(header >>> 1))
+                    .internal((header & 1) != 0)
+                    .actorId(readNullable(bytes, position))
+                    .occurredAt(base.plus(Duration.ofMillis(unZigZag(readVarLong(bytes, position)))))
+                    .fromValue(readNullable(bytes, position))
+                    .toValue(readNullable(bytes, position))
+                    .build());
+        }
+        return events;
+    }
+    
+    // Ids and codes are never negative; -1 would come back as null. Long.MAX_VALUE wraps and reads back intact.
+    private static void writeNullable(ByteArrayOutputStream out, Long value) {
+        if (value != null && value < 0) {
+            throw new IllegalArgumentException("Cannot encode negative value " + value);
+        }
+        writeVarLong(out, value == null ? 0 : value + 1);
+    }
+    
+    private static Long readNullable(byte[] bytes, int[] position) {
+        long value = readVarLong(bytes, position);
+        return value == 0 ? null : value - 1;
+    }
+    
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+    
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = bytes[position[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+    }
+    
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,92 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.entity.TicketHistoryRecord;
+import com.dk.supportsystem.repository.TicketHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the ticket events raised during a transaction and writes them just before commit as one
+ * varint-encoded row per ticket, in a single JDBC batch.
+ */
+@Component
+@RequiredArgsConstructor
+public class TicketHistoryRecorder {
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO ticket_history (ticket_id, organization_id, created_at, events) VALUES (?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TicketHistoryRepository historyRepository;
+    
+    public void record(Long ticketId, Long organizationId, TicketEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<Long, Batch> batches = new LinkedHashMap<>();
+            batches.put(ticketId, new Batch(organizationId));
+            batches.get(ticketId).events.add(event);
+            write(batches);
+            return;
+        }
+        
+        @SuppressWarnings("unchecked")
+        Map<Long, Batch> batches = (Map<Long, Batch>) TransactionSynchronizationManager.getResource(this);
+        if (batches == null) {
+            Map<Long, Batch> bound = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(bound);
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TicketHistoryRecorder.this);
+                }
+            });
+            batches = bound;
+        }
+        batches.computeIfAbsent(ticketId, id -> new Batch(organizationId)).events.add(event);
+    }
+    
+    public List<TicketEvent> readTimeline(Long ticketId) {
+        List<TicketEvent> timeline = new ArrayList<>();
+        for (TicketHistoryRecord record : historyRepository.findByTicketIdOrderByIdAsc(ticketId)) {
+            timeline.addAll(TicketEventCodec.decode(record.getEvents(), record.getCreatedAt()));
+        }
+        return timeline;
+    }
+    
+    private void write(Map<Long, Batch> batches) {
+        if (batches.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(batches.size());
+        batches.forEach((ticketId, batch) -> {
+            var base = batch.events.get(0).getOccurredAt();
+            rows.add(new Object[]{
+                    ticketId, batch.organizationId, Timestamp.valueOf(base), TicketEventCodec.encode(batch.events, base)
+            });
+        });
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        batches.clear();
+    }
+    
+    private static final class Batch {
+        private final Long organizationId;
+        private final List<TicketEvent> events = new ArrayList<>();
+        
+        private Batch(Long organizationId) {
+            this.organizationId = organizationId;
+        }
+    }
+}
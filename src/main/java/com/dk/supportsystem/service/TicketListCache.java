@@ -0,0 +1,145 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.cluster.ClusterSubscriber;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Serialized ticket list pages per organization. Every organization has a change version that is bumped
+ * after each committed ticket write (locally, or on another node via the cluster bus); an entry is only
+ * served while it carries the current version, so agents polling the same page cost one query per change
+ * instead of one per poll. Entries are evicted least recently used once {@code ticket-list-cache.max-bytes}
+ * of payload is held.
+ */
+@Slf4j
+@Component
+public class TicketListCache implements ClusterSubscriber {
+    
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final Counter hits;
+    private final Counter misses;
+    
+    private final SingleFlight<Flight, byte[]> flights = new SingleFlight<>();
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    
+    public TicketListCache(ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${ticket-list-cache.enabled}") boolean enabled,
+                           @Value("${ticket-list-cache.max-bytes}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        // A single page must not be able to flush most of the cache
+        this.maxEntryBytes = maxBytes / 16;
+        this.hits = Counter.builder("tickets.list-cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("tickets.list-cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("tickets.list-cache.bytes", this, TicketListCache::currentBytes).register(meterRegistry);
+    }
+    
+    /**
+     * Returns the serialized result for {@code query} in the organization, loading and caching it if the
+     * cached copy is missing or older than the organization's last change.
+     */
+    public byte[] get(Long organizationId, String query, Supplier<?> loader) {
+        if (!enabled) {
+            return objectMapper.writeValueAsBytes(loader.get());
+        }
+        
+        // Read the version before loading: a write committing meanwhile makes this entry stale, never wrong
+        long version = versionOf(organizationId).get();
+        Key key = new Key(organizationId, query);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version() == version) {
+                hits.increment();
+                return entry.body();
+            }
+        }
+        
+        // Agents polling the same page right after a change share one load
+        return flights.execute(new Flight(key, version), () -> {
+            misses.increment();
+            byte[] body = objectMapper.writeValueAsBytes(loader.get());
+            if (body.length <= maxEntryBytes) {
+                store(key, new Entry(version, body));
+            }
+            return body;
+        });
+    }
+    
+    /**
+     * Invalidates every cached page of the organization once the current transaction commits.
+     */
+    public void invalidate(Long organizationId) {
+        TransactionHooks.afterCommit(() -> versionOf(organizationId).incrementAndGet());
+    }
+    
+    @Override
+    public void onTicketsChanged(Set<Long> ticketIds) {
+        // Ticket changes always arrive with their organization, which is handled below
+    }
+    
+    @Override
+    public void onOrganizationsChanged(Set<Long> organizationIds) {
+        organizationIds.forEach(id -> versionOf(id).incrementAndGet());
+    }
+    
+    @Override
+    public void onResync() {
+        versions.values().forEach(AtomicLong::incrementAndGet);
+        synchronized (this) {
+            entries.clear();
+            totalBytes = 0;
+        }
+    }
+    
+    private AtomicLong versionOf(Long organizationId) {
+        return versions.computeIfAbsent(organizationId, id -> new AtomicLong());
+    }
+    
+    private synchronized void store(Key key, Entry entry) {
+        Entry previous = entries.get(key);
+        if (previous != null && previous.version() > entry.version()) {
+            return;
+        }
+        entries.put(key, entry);
+        totalBytes += entry.body().length - (previous != null ? previous.body().length : 0);
+        
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().body().length;
+            eldest.remove();
+        }
+    }
+    
+    private synchronized long currentBytes() {
+        return totalBytes;
+    }
+    
+    private record Key(Long organizationId, String query) {
+    }
+    
+    private record Entry(long version, byte[] body) {
+    }
+    
+    private record Flight(Key key, long version) {
+    }
+}
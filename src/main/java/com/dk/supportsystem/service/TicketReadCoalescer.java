@@ -0,0 +1,48 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.dto.response.ResourceVersion;
+import com.dk.supportsystem.dto.response.TicketResponse;
+import com.dk.supportsystem.enums.MessageVisibility;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Serves bursts of identical ticket and thread reads from one load. Callers pass the version they already
+ * checked access against; requests for the same ticket at the same ETag share one database round and one
+ * serialized JSON body, while a request that saw a newer ETag never joins an older load. Binary (CBOR/Smile)
+ * readers share the loaded response object instead and leave the encoding to content negotiation.
+ */
+@Component
+@RequiredArgsConstructor
+public class TicketReadCoalescer {
+    
+    private final TicketService ticketService;
+    private final ObjectMapper objectMapper;
+    
+    private final SingleFlight<Key, byte[]> flights = new SingleFlight<>();
+    private final SingleFlight<Key, TicketResponse> ticketLoads = new SingleFlight<>();
+    
+    public byte[] ticket(Long ticketId, Long userId, ResourceVersion version) {
+        return flights.execute(new Key(Kind.TICKET, ticketId, version.getEtag()),
+                () -> objectMapper.writeValueAsBytes(ticketService.getTicketById(ticketId, userId)));
+    }
+    
+    public TicketResponse ticketResponse(Long ticketId, Long userId, ResourceVersion version) {
+        return ticketLoads.execute(new Key(Kind.TICKET, ticketId, version.getEtag()),
+                () -> ticketService.getTicketById(ticketId, userId));
+    }
+    
+    public byte[] messages(Long ticketId, MessageVisibility visibility, Long userId, ResourceVersion version) {
+        Kind kind = visibility == MessageVisibility.PUBLIC ? Kind.PUBLIC_MESSAGES : Kind.MESSAGES;
+        return flights.execute(new Key(kind, ticketId, version.getEtag()),
+                () -> objectMapper.writeValueAsBytes(ticketService.getMessages(ticketId, visibility, userId)));
+    }
+    
+    private enum Kind {
+        TICKET, MESSAGES, PUBLIC_MESSAGES
+    }
+    
+    private record Key(Kind kind, Long ticketId, String etag) {
+    }
+}
@@ -0,0 +1,145 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.archive.ArchivedAttachment;
+import com.dk.supportsystem.archive.ArchivedMessage;
+import com.dk.supportsystem.archive.ArchivedTicket;
+import com.dk.supportsystem.dto.response.AttachmentResponse;
+import com.dk.supportsystem.dto.response.MessageResponse;
+import com.dk.supportsystem.dto.response.TicketResponse;
+import com.dk.supportsystem.dto.response.UserResponse;
+import com.dk.supportsystem.entity.MessageAttachment;
+import com.dk.supportsystem.entity.Ticket;
+import com.dk.supportsystem.entity.TicketMessage;
+import com.dk.supportsystem.entity.User;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the tickets and messages of one response. Each user is mapped once and the same immutable
+ * {@link UserResponse} is shared by every ticket and message that references it, so a page of tickets
+ * by a handful of agents allocates a handful of user objects. Use a new instance per response.
+ */
+final class TicketResponseMapper {
+    
+    private final Map<Long, UserResponse> users = new HashMap<>();
+    
+    TicketResponse ticket(Ticket ticket) {
+        return TicketResponse.builder()
+                .id(ticket.getId())
+                .title(ticket.getTitle())
+                .description(ticket.getDescription())
+                .status(ticket.getStatus())
+                .priority(ticket.getPriority())
+                .createdBy(user(ticket.getCreatedBy()))
+                .assignedTo(ticket.getAssignedTo() != null ? user(ticket.getAssignedTo()) : null)
+                .createdAt(ticket.getCreatedAt())
+                .updatedAt(ticket.getUpdatedAt())
+                .resolvedAt(ticket.getResolvedAt())
+                .closedAt(ticket.getClosedAt())
+                .duplicateOfId(ticket.getDuplicateOfId())
+                .lastMessageAt(ticket.getLastMessageAt())
+                .lastMessageById(ticket.getLastMessageBy())
+                .messageCount(ticket.getMessageCount())
+                .publicMessageCount(ticket.getPublicMessageCount())
+                .build();
+    }
+    
+    TicketResponse ticket(ArchivedTicket ticket, Map<Long, User> archivedUsers) {
+        User assignedTo = ticket.getAssignedToId() != null ? archivedUsers.get(ticket.getAssignedToId()) : null;
+        List<ArchivedMessage> messages = ticket.getMessages();
+        ArchivedMessage last = messages.isEmpty() ? null : messages.get(messages.size() - 1);
+        int publicMessages = 0;
+        for (ArchivedMessage message : messages) {
+            if (!Boolean.TRUE.equals(message.getIsInternal())) {
+                publicMessages++;
+            }
+        }
+        return TicketResponse.builder()
+                .id(ticket.getId())
+                .title(ticket.getTitle())
+                .description(ticket.getDescription())
+                .status(ticket.getStatus())
+                .priority(ticket.getPriority())
+                .createdBy(user(archivedUsers.get(ticket.getCreatedById())))
+                .assignedTo(assignedTo != null ? user(assignedTo) : null)
+                .createdAt(ticket.getCreatedAt())
+                .updatedAt(ticket.getUpdatedAt())
+                .resolvedAt(ticket.getResolvedAt())
+                .closedAt(ticket.getClosedAt())
+                .duplicateOfId(ticket.getDuplicateOfId())
+                .lastMessageAt(last != null ? last.getCreatedAt() : ticket.getCreatedAt())
+                .lastMessageById(last != null ? last.getUserId() : null)
+                .messageCount(messages.size())
+                .publicMessageCount(publicMessages)
+                .build();
+    }
+    
+    MessageResponse message(TicketMessage message, List<MessageAttachment> attachments) {
+        List<AttachmentResponse> mapped = List.of();
+        if (!attachments.isEmpty()) {
+            mapped = new ArrayList<>(attachments.size());
+            for (MessageAttachment attachment : attachments) {
+                mapped.add(attachment(attachment));
+            }
+        }
+        return MessageResponse.builder()
+                .id(message.getId())
+                .message(message.getMessage())
+                .isInternal(message.getIsInternal())
+                .user(user(message.getUser()))
+                .createdAt(message.getCreatedAt())
+                .attachments(mapped)
+                .build();
+    }
+    
+    MessageResponse message(ArchivedMessage message, Map<Long, User> archivedUsers) {
+        List<AttachmentResponse> mapped = List.of();
+        if (!message.getAttachments().isEmpty()) {
+            mapped = new ArrayList<>(message.getAttachments().size());
+            for (ArchivedAttachment attachment : message.getAttachments()) {
+                mapped.add(attachment(attachment));
+            }
+        }
+        return MessageResponse.builder()
+                .id(message.getId())
+                .message(message.getMessage())
+                .isInternal(message.getIsInternal())
+                .user(user(archivedUsers.get(message.getUserId())))
+                .createdAt(message.getCreatedAt())
+                .attachments(mapped)
+                .build();
+    }
+    
+    UserResponse user(User user) {
+        UserResponse mapped = users.get(user.getId());
+        if (mapped == null) {
+            mapped = new UserResponse(user.getId(), user.getEmail(), user.getFullName(), user.getRole(),
+                    user.getOrganization().getName());
+            users.put(user.getId(), mapped);
+        }
+        return mapped;
+    }
+    
+    private static AttachmentResponse attachment(MessageAttachment attachment) {
+        return AttachmentResponse.builder()
+                .id(attachment.getId())
+                .fileName(attachment.getFileName())
+                .contentType(attachment.getContentType())
+                .sizeBytes(attachment.getSizeBytes())
+                .createdAt(attachment.getCreatedAt())
+                .build();
+    }
+    
+    private static AttachmentResponse attachment(ArchivedAttachment attachment) {
+        return AttachmentResponse.builder()
+                .id(attachment.getId())
+                .fileName(attachment.getFileName())
+                .contentType(attachment.getContentType())
+                .sizeBytes(attachment.getSizeBytes())
+                .createdAt(attachment.getCreatedAt())
+                .build();
+    }
+}
@@ -1,13 +1,25 @@
 package com.dk.supportsystem.service;
 
+import com.dk.supportsystem.archive.ArchivedAttachment;
+import com.dk.supportsystem.archive.ArchivedMessage;
+import com.dk.supportsystem.archive.ArchivedTicket;
+import com.dk.supportsystem.archive.TicketArchiveStore;
+import com.dk.supportsystem.cluster.ClusterBus;
 import com.dk.supportsystem.dto.request.AddMessageRequest;
 import com.dk.supportsystem.dto.request.AssignTicketRequest;
+import com.dk.supportsystem.dto.request.BatchGetTicketsRequest;
 import com.dk.supportsystem.dto.request.CreateTicketRequest;
 import com.dk.supportsystem.dto.request.UpdateTicketStatusRequest;
+import com.dk.supportsystem.dto.response.BatchTicketResponse;
 import com.dk.supportsystem.dto.response.MessageResponse;
+import com.dk.supportsystem.dto.response.ResourceVersion;
+import com.dk.supportsystem.dto.response.TicketEventResponse;
 import com.dk.supportsystem.dto.response.TicketResponse;
-import com.dk.supportsystem.dto.response.UserResponse;
+import com.dk.supportsystem.dto.response.TicketSummaryResponse;
 import com.dk.supportsystem.entity.*;
+import com.dk.supportsystem.enums.MessageVisibility;
+import com.dk.supportsystem.enums.TicketEventType;
+import com.dk.supportsystem.enums.TicketPriority;
 import com.dk.supportsystem.enums.TicketStatus;
 import com.dk.supportsystem.enums.UserRole;
 import com.dk.supportsystem.exception.BadRequestException;
@@ -20,7 +32,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -30,10 +51,20 @@ public class TicketService {
     private final UserRepository userRepository;
     private final TicketMessageRepository messageRepository;
     private final SlaConfigRepository slaConfigRepository;
+    private final MessageAttachmentRepository attachmentRepository;
+    private final TicketArchiveStore archiveStore;
+    private final FirstResponseTracker firstResponseTracker;
+    private final IdempotencyService idempotencyService;
+    private final AgentWorkQueue workQueue;
+    private final TicketHistoryRecorder historyRecorder;
+    private final DuplicateTicketDetector duplicateDetector;
+    private final ClusterBus clusterBus;
+    private final TicketListCache listCache;
     
     @Transactional
-    public TicketResponse createTicket(CreateTicketRequest request, Long userId) {
+    public TicketResponse createTicket(CreateTicketRequest request, Long userId, IdempotencyKey idempotencyKey) {
         User user = getUserById(userId);
+        int[] signature = duplicateDetector.signatureOf(request.getTitle(), request.getDescription());
         
         Ticket ticket = Ticket.builder()
                 .title(request.getTitle())
@@ -42,29 +73,124 @@ public class TicketService {
                 .priority(request.getPriority())
                 .organization(user.getOrganization())
                 .createdBy(user)
+                .duplicateOfId(duplicateDetector.findOriginal(user.getOrganization().getId(), signature))
+                .lastMessageAt(LocalDateTime.now())
                 .build();
         
         ticket = ticketRepository.save(ticket);
+        duplicateDetector.index(ticket, signature);
         
         createSlaConfig(ticket);
+        idempotencyService.remember(idempotencyKey, ticket.getId());
+        recordEvent(ticket, TicketEventType.CREATED, userId, null, (long) ticket.getPriority().getCode(), false);
         
-        return mapToTicketResponse(ticket);
+        return new TicketResponseMapper().ticket(ticket);
     }
     
     @Transactional(readOnly = true)
-    public Page<TicketResponse> getTickets(Long userId, TicketStatus status, 
-                                           Long assignedTo, Pageable pageable) {
+    public Page<TicketResponse> getTickets(Long userId, TicketStatus status, Long assignedTo,
+                                           LocalDateTime activeSince, Pageable pageable) {
         User user = getUserById(userId);
         Long orgId = user.getOrganization().getId();
         
-        Page<Ticket> tickets = ticketRepository.findByFilters(orgId, status, assignedTo, pageable);
-        return tickets.map(this::mapToTicketResponse);
+        Page<Ticket> tickets = ticketRepository.findByFilters(orgId, status, assignedTo, activeSince, pageable);
+        TicketResponseMapper mapper = new TicketResponseMapper();
+        return tickets.map(mapper::ticket);
+    }
+    
+    public Long getOrganizationId(Long userId) {
+        return userRepository.findOrganizationIdById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
     }
     
     @Transactional(readOnly = true)
     public TicketResponse getTicketById(Long ticketId, Long userId) {
-        Ticket ticket = getTicketAndValidateAccess(ticketId, userId);
-        return mapToTicketResponse(ticket);
+        Optional<Ticket> ticket = ticketRepository.findById(ticketId);
+        if (ticket.isPresent()) {
+            validateOrganizationAccess(ticket.get().getOrganization().getId(), userId);
+            return new TicketResponseMapper().ticket(ticket.get());
+        }
+        
+        ArchivedTicket archived = getArchivedTicketAndValidateAccess(ticketId, userId);
+        Map<Long, User> users = loadUsers(archived);
+        return new TicketResponseMapper().ticket(archived, users);
+    }
+    
+    @Transactional(readOnly = true)
+    public Page<TicketSummaryResponse> getTicketSummaries(Long userId, TicketStatus status, Long assignedTo,
+                                                          LocalDateTime activeSince, Pageable pageable) {
+        User user = getUserById(userId);
+        Long orgId = user.getOrganization().getId();
+        
+        return ticketRepository.findSummariesByFilters(orgId, status, assignedTo, activeSince, pageable);
+    }
+    
+    @Transactional(readOnly = true)
+    public BatchTicketResponse getTicketsByIds(BatchGetTicketsRequest request, Long userId) {
+        User user = getUserById(userId);
+        Long orgId = user.getOrganization().getId();
+        Set<Long> requested = new LinkedHashSet<>(request.getIds());
+        
+        TicketResponseMapper mapper = new TicketResponseMapper();
+        Map<Long, TicketResponse> found = new HashMap<>();
+        for (Ticket ticket : ticketRepository.findAllWithUsersByOrganizationIdAndIdIn(orgId, requested)) {
+            found.put(ticket.getId(), mapper.ticket(ticket));
+        }
+        
+        Set<Long> forbidden = new HashSet<>();
+        List<Long> unresolved = requested.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!unresolved.isEmpty()) {
+            forbidden.addAll(ticketRepository.findExistingIds(unresolved));
+            for (Long id : unresolved) {
+                if (forbidden.contains(id)) {
+                    continue;
+                }
+                archiveStore.find(id).ifPresent(archived -> {
+                    if (archived.getOrganizationId().equals(orgId)) {
+                        found.put(id, mapper.ticket(archived, loadUsers(archived)));
+                    } else {
+                        forbidden.add(id);
+                    }
+                });
+            }
+        }
+        
+        List<TicketResponse> tickets = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        List<Long> forbiddenIds = new ArrayList<>();
+        for (Long id : requested) {
+            if (found.containsKey(id)) {
+                tickets.add(found.get(id));
+            } else if (forbidden.contains(id)) {
+                forbiddenIds.add(id);
+            } else {
+                missing.add(id);
+            }
+        }
+        
+        return BatchTicketResponse.builder()
+                .tickets(tickets)
+                .missing(missing)
+                .forbidden(forbiddenIds)
+                .build();
+    }
+    
+    @Transactional(readOnly = true)
+    public ResourceVersion getTicketVersion(Long ticketId, Long userId) {
+        Optional<TicketRepository.VersionView> version = ticketRepository.findVersionById(ticketId);
+        if (version.isPresent()) {
+            TicketRepository.VersionView current = version.get();
+            validateOrganizationAccess(current.getOrganizationId(), userId);
+            // Messages leave the row version alone but change messageCount and lastMessageAt in the response
+            LocalDateTime lastModified = current.getLastMessageAt() != null
+                    && current.getLastMessageAt().isAfter(current.getUpdatedAt())
+                    ? current.getLastMessageAt() : current.getUpdatedAt();
+            return ResourceVersion.weak("t" + ticketId + "-v" + current.getVersion() + "-m" + current.getMessageCount(),
+                    lastModified);
+        }
+        
+        ArchivedTicket archived = getArchivedTicketAndValidateAccess(ticketId, userId);
+        return ResourceVersion.weak("a" + ticketId, archived.getUpdatedAt());
     }
     
     @Transactional
@@ -80,13 +206,25 @@ public class TicketService {
             throw new BadRequestException("Agent must be from same organization");
         }
         
+        boolean alreadyAssigned = ticket.getAssignedTo() != null && ticket.getAssignedTo().getId().equals(agent.getId());
+        if (alreadyAssigned && ticket.getStatus() != TicketStatus.OPEN) {
+            return new TicketResponseMapper().ticket(ticket);
+        }
+        
+        Long previousAssignee = ticket.getAssignedTo() != null ? ticket.getAssignedTo().getId() : null;
         ticket.setAssignedTo(agent);
+        if (!alreadyAssigned) {
+            recordEvent(ticket, TicketEventType.ASSIGNED, userId, previousAssignee, agent.getId(), false);
+        }
         if (ticket.getStatus() == TicketStatus.OPEN) {
             ticket.setStatus(TicketStatus.IN_PROGRESS);
+            recordEvent(ticket, TicketEventType.STATUS_CHANGED, userId,
+                    (long) TicketStatus.OPEN.getCode(), (long) TicketStatus.IN_PROGRESS.getCode(), false);
         }
         
         ticket = ticketRepository.save(ticket);
-        return mapToTicketResponse(ticket);
+        refreshWorkQueue(ticket);
+        return new TicketResponseMapper().ticket(ticket);
     }
     
     @Transactional
@@ -95,20 +233,33 @@ public class TicketService {
         
         validateStatusTransition(ticket.getStatus(), request.getStatus());
         
+        if (ticket.getStatus() == request.getStatus()) {
+            return new TicketResponseMapper().ticket(ticket);
+        }
+        
+        recordEvent(ticket, TicketEventType.STATUS_CHANGED, userId,
+                (long) ticket.getStatus().getCode(), (long) request.getStatus().getCode(), false);
         ticket.setStatus(request.getStatus());
         
         if (request.getStatus() == TicketStatus.RESOLVED) {
             ticket.setResolvedAt(LocalDateTime.now());
+            duplicateDetector.forget(ticket);
         } else if (request.getStatus() == TicketStatus.CLOSED) {
             ticket.setClosedAt(LocalDateTime.now());
+            firstResponseTracker.markSettled(ticketId);
+            duplicateDetector.forget(ticket);
+        } else if (request.getStatus() == TicketStatus.OPEN || request.getStatus() == TicketStatus.IN_PROGRESS) {
+            firstResponseTracker.markUnsettled(ticketId);
         }
         
         ticket = ticketRepository.save(ticket);
-        return mapToTicketResponse(ticket);
+        refreshWorkQueue(ticket);
+        return new TicketResponseMapper().ticket(ticket);
     }
     
     @Transactional
-    public MessageResponse addMessage(Long ticketId, AddMessageRequest request, Long userId) {
+    public MessageResponse addMessage(Long ticketId, AddMessageRequest request, Long userId,
+                                      IdempotencyKey idempotencyKey) {
         Ticket ticket = getTicketAndValidateAccess(ticketId, userId);
         User user = getUserById(userId);
         
@@ -120,29 +271,176 @@ public class TicketService {
                 .build();
         
         message = messageRepository.save(message);
+        if (Boolean.TRUE.equals(message.getIsInternal())) {
+            ticketRepository.recordInternalMessage(ticket.getId(), userId, message.getCreatedAt());
+        } else {
+            ticketRepository.recordPublicMessage(ticket.getId(), userId, message.getCreatedAt());
+        }
+        idempotencyService.remember(idempotencyKey, message.getId());
+        recordEvent(ticket, TicketEventType.MESSAGE_ADDED, userId, null, message.getId(),
+                Boolean.TRUE.equals(message.getIsInternal()));
         
-        updateSlaOnFirstResponse(ticket);
+        boolean byAgent = !user.getId().equals(ticket.getCreatedBy().getId());
+        if (ticket.getStatus() != TicketStatus.CLOSED && firstResponseTracker.recordResponse(ticket.getId(), byAgent)) {
+            workQueue.markFirstResponded(ticket.getId());
+        }
         
-        return mapToMessageResponse(message);
+        return new TicketResponseMapper().message(message, List.of());
     }
     
     @Transactional(readOnly = true)
-    public List<MessageResponse> getMessages(Long ticketId, Long userId) {
+    public List<MessageResponse> getMessages(Long ticketId, MessageVisibility visibility, Long userId) {
+        Optional<Ticket> ticket = ticketRepository.findById(ticketId);
+        if (ticket.isPresent()) {
+            validateOrganizationAccess(ticket.get().getOrganization().getId(), userId);
+            List<TicketMessage> messages = visibility == MessageVisibility.PUBLIC
+                    ? messageRepository.findPublicByTicketIdOrderByCreatedAtAsc(ticketId)
+                    : messageRepository.findByTicketIdOrderByCreatedAtAsc(ticketId);
+            Map<Long, List<MessageAttachment>> attachments = loadAttachments(messages);
+            TicketResponseMapper mapper = new TicketResponseMapper();
+            List<MessageResponse> thread = new ArrayList<>(messages.size());
+            for (TicketMessage message : messages) {
+                thread.add(mapper.message(message, attachments.getOrDefault(message.getId(), List.of())));
+            }
+            return thread;
+        }
+        
+        ArchivedTicket archived = getArchivedTicketAndValidateAccess(ticketId, userId);
+        Map<Long, User> users = loadUsers(archived);
+        TicketResponseMapper mapper = new TicketResponseMapper();
+        return visibleMessages(archived, visibility).stream()
+                .map(m -> mapper.message(m, users))
+                .toList();
+    }
+    
+    @Transactional(readOnly = true)
+    public MessageResponse getMessage(Long ticketId, Long messageId, Long userId) {
         getTicketAndValidateAccess(ticketId, userId);
-        List<TicketMessage> messages = messageRepository.findByTicketIdOrderByCreatedAtAsc(ticketId);
-        return messages.stream().map(this::mapToMessageResponse).toList();
+        TicketMessage message = messageRepository.findById(messageId)
+                .filter(m -> m.getTicket().getId().equals(ticketId))
+                .orElseThrow(() -> new ResourceNotFoundException("Message not found"));
+        List<MessageAttachment> attachments = attachmentRepository.findByMessageIdInOrderByIdAsc(List.of(messageId));
+        return new TicketResponseMapper().message(message, attachments);
+    }
+    
+    @Transactional(readOnly = true)
+    public void validateTicketAccess(Long ticketId, Long userId) {
+        Optional<TicketRepository.VersionView> version = ticketRepository.findVersionById(ticketId);
+        if (version.isPresent()) {
+            validateOrganizationAccess(version.get().getOrganizationId(), userId);
+        } else {
+            getArchivedTicketAndValidateAccess(ticketId, userId);
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public List<TicketEventResponse> getHistory(Long ticketId, Long userId) {
+        validateTicketAccess(ticketId, userId);
+        return historyRecorder.readTimeline(ticketId).stream()
+                .map(this::mapToEventResponse)
+                .toList();
+    }
+    
+    /**
+     * Thread version from the counters kept on the ticket row. Messages and attachments are append-only
+     * while a ticket is live, so the count of visible messages together with the count of attachments
+     * identifies the thread a viewer gets.
+     */
+    @Transactional(readOnly = true)
+    public ResourceVersion getMessagesVersion(Long ticketId, MessageVisibility visibility, Long userId) {
+        Optional<TicketRepository.VersionView> version = ticketRepository.findVersionById(ticketId);
+        if (version.isPresent()) {
+            TicketRepository.VersionView current = version.get();
+            validateOrganizationAccess(current.getOrganizationId(), userId);
+            return visibility == MessageVisibility.PUBLIC
+                    ? threadVersion(ticketId, visibility, current.getPublicMessageCount(), current.getLastPublicMessageAt(),
+                            current.getAttachmentCount(), current.getLastAttachmentAt())
+                    : threadVersion(ticketId, visibility, current.getMessageCount(), current.getLastMessageAt(),
+                            current.getAttachmentCount(), current.getLastAttachmentAt());
+        }
+        
+        ArchivedTicket archived = getArchivedTicketAndValidateAccess(ticketId, userId);
+        List<ArchivedMessage> messages = visibleMessages(archived, visibility);
+        ArchivedMessage last = messages.isEmpty() ? null : messages.get(messages.size() - 1);
+        int attachmentCount = 0;
+        LocalDateTime lastAttachmentAt = null;
+        for (ArchivedMessage message : archived.getMessages()) {
+            for (ArchivedAttachment attachment : message.getAttachments()) {
+                attachmentCount++;
+                lastAttachmentAt = later(lastAttachmentAt, attachment.getCreatedAt());
+            }
+        }
+        return threadVersion(ticketId, visibility, messages.size(), last != null ? last.getCreatedAt() : null,
+                attachmentCount, lastAttachmentAt);
+    }
+    
+    private ResourceVersion threadVersion(Long ticketId, MessageVisibility visibility, long count,
+                                          LocalDateTime lastCreatedAt, long attachmentCount,
+                                          LocalDateTime lastAttachmentAt) {
+        String prefix = visibility == MessageVisibility.PUBLIC ? "p" : "m";
+        return ResourceVersion.weak(prefix + ticketId + "-" + count + "-" + attachmentCount,
+                later(lastCreatedAt, lastAttachmentAt));
+    }
+    
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b != null && b.isAfter(a) ? b : a;
+    }
+    
+    private static List<ArchivedMessage> visibleMessages(ArchivedTicket ticket, MessageVisibility visibility) {
+        if (visibility != MessageVisibility.PUBLIC) {
+            return ticket.getMessages();
+        }
+        return ticket.getMessages().stream()
+                .filter(m -> !Boolean.TRUE.equals(m.getIsInternal()))
+                .toList();
     }
     
     private Ticket getTicketAndValidateAccess(Long ticketId, Long userId) {
         Ticket ticket = ticketRepository.findById(ticketId)
                 .orElseThrow(() -> new ResourceNotFoundException("Ticket not found"));
         
+        validateOrganizationAccess(ticket.getOrganization().getId(), userId);
+        
+        return ticket;
+    }
+    
+    private ArchivedTicket getArchivedTicketAndValidateAccess(Long ticketId, Long userId) {
+        ArchivedTicket ticket = archiveStore.find(ticketId)
+                .orElseThrow(() -> new ResourceNotFoundException("Ticket not found"));
+        
+        validateOrganizationAccess(ticket.getOrganizationId(), userId);
+        
+        return ticket;
+    }
+    
+    private void validateOrganizationAccess(Long organizationId, Long userId) {
         User user = getUserById(userId);
-        if (!ticket.getOrganization().getId().equals(user.getOrganization().getId())) {
+        if (!organizationId.equals(user.getOrganization().getId())) {
             throw new BadRequestException("Access denied");
         }
-        
-        return ticket;
+    }
+    
+    private Map<Long, List<MessageAttachment>> loadAttachments(List<TicketMessage> messages) {
+        if (messages.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> messageIds = messages.stream().map(TicketMessage::getId).toList();
+        return attachmentRepository.findByMessageIdInOrderByIdAsc(messageIds).stream()
+                .collect(Collectors.groupingBy(a -> a.getMessage().getId()));
+    }
+    
+    private Map<Long, User> loadUsers(ArchivedTicket ticket) {
+        Set<Long> ids = new HashSet<>();
+        ids.add(ticket.getCreatedById());
+        if (ticket.getAssignedToId() != null) {
+            ids.add(ticket.getAssignedToId());
+        }
+        ticket.getMessages().forEach(m -> ids.add(m.getUserId()));
+        return userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
     }
     
     private User getUserById(Long userId) {
@@ -156,13 +454,17 @@ public class TicketService {
         }
     }
     
-    private void createSlaConfig(Ticket ticket) {
-        int hoursToAdd = switch (ticket.getPriority()) {
+    static int firstResponseHours(TicketPriority priority) {
+        return switch (priority) {
             case URGENT -> 1;
             case HIGH -> 4;
             case MEDIUM -> 8;
             case LOW -> 24;
         };
+    }
+    
+    private void createSlaConfig(Ticket ticket) {
+        int hoursToAdd = firstResponseHours(ticket.getPriority());
         
         SlaConfig slaConfig = SlaConfig.builder()
                 .ticket(ticket)
@@ -171,50 +473,63 @@ public class TicketService {
                 .build();
         
         slaConfigRepository.save(slaConfig);
+        firstResponseTracker.markUnsettled(ticket.getId());
     }
     
-    private void updateSlaOnFirstResponse(Ticket ticket) {
-        slaConfigRepository.findByTicketId(ticket.getId()).ifPresent(sla -> {
-            if (!sla.getFirstResponseMet()) {
-                sla.setFirstResponseMet(true);
-                slaConfigRepository.save(sla);
-            }
-        });
-    }
-    
-    private TicketResponse mapToTicketResponse(Ticket ticket) {
-        return TicketResponse.builder()
-                .id(ticket.getId())
-                .title(ticket.getTitle())
-                .description(ticket.getDescription())
-                .status(ticket.getStatus())
-                .priority(ticket.getPriority())
-                .createdBy(mapToUserResponse(ticket.getCreatedBy()))
-                .assignedTo(ticket.getAssignedTo() != null ? mapToUserResponse(ticket.getAssignedTo()) : null)
-                .createdAt(ticket.getCreatedAt())
-                .updatedAt(ticket.getUpdatedAt())
-                .resolvedAt(ticket.getResolvedAt())
-                .closedAt(ticket.getClosedAt())
-                .build();
+    private void recordEvent(Ticket ticket, TicketEventType type, Long actorId,
+                             Long fromValue, Long toValue, boolean internal) {
+        historyRecorder.record(ticket.getId(), ticket.getOrganization().getId(), TicketEvent.builder()
+                .type(type)
+                .actorId(actorId)
+                .occurredAt(LocalDateTime.now())
+                .fromValue(fromValue)
+                .toValue(toValue)
+                .internal(internal)
+                .build());
+        listCache.invalidate(ticket.getOrganization().getId());
+        clusterBus.ticketChanged(ticket.getOrganization().getId(), ticket.getId());
     }
     
-    private MessageResponse mapToMessageResponse(TicketMessage message) {
-        return MessageResponse.builder()
-                .id(message.getId())
-                .message(message.getMessage())
-                .isInternal(message.getIsInternal())
-                .user(mapToUserResponse(message.getUser()))
-                .createdAt(message.getCreatedAt())
-                .build();
+    private void refreshWorkQueue(Ticket ticket) {
+        if (ticket.getAssignedTo() == null || !AgentWorkQueue.ACTIVE_STATUSES.contains(ticket.getStatus())) {
+            workQueue.remove(ticket.getId());
+            return;
+        }
+        
+        AgentWorkQueue.Item item = workQueue.find(ticket.getId())
+                .map(existing -> existing.toBuilder()
+                        .agentId(ticket.getAssignedTo().getId())
+                        .title(ticket.getTitle())
+                        .status(ticket.getStatus())
+                        .priority(ticket.getPriority())
+                        .build())
+                .orElseGet(() -> workQueue.itemFor(ticket,
+                        slaConfigRepository.findByTicketId(ticket.getId()).orElse(null)));
+        workQueue.put(item);
     }
     
-    private UserResponse mapToUserResponse(User user) {
-        return UserResponse.builder()
-                .id(user.getId())
-                .email(user.getEmail())
-                .fullName(user.getFullName())
-                .role(user.getRole())
-                .organizationName(user.getOrganization().getName())
-                .build();
+    private TicketEventResponse mapToEventResponse(TicketEvent event) {
+        TicketEventResponse.TicketEventResponseBuilder builder = TicketEventResponse.builder()
+                .type(event.getType())
+                .actorId(event.getActorId())
+                .occurredAt(event.getOccurredAt());
+        
+        switch (event.getType()) {
+            case CREATED -> builder.toPriority(priorityOf(event.getToValue()));
+            case ASSIGNED -> builder.fromAssigneeId(event.getFromValue()).toAssigneeId(event.getToValue());
+            case STATUS_CHANGED -> builder.fromStatus(statusOf(event.getFromValue())).toStatus(statusOf(event.getToValue()));
+            case PRIORITY_CHANGED -> builder.fromPriority(priorityOf(event.getFromValue()))
+                    .toPriority(priorityOf(event.getToValue()));
+            case MESSAGE_ADDED -> builder.messageId(event.getToValue()).internal(event.isInternal());
+        }
+        return builder.build();
+    }
+    
+    private static TicketStatus statusOf(Long code) {
+        return code != null ? TicketStatus.fromCode(code.intValue()) : null;
+    }
+    
+    private static TicketPriority priorityOf(Long code) {
+        return code != null ? TicketPriority.fromCode(code.intValue()) : null;
     }
 }
@@ -0,0 +1,305 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.dto.request.UserImportRow;
+import com.dk.supportsystem.dto.response.UserImportResponse;
+import com.dk.supportsystem.dto.response.UserImportRowResult;
+import com.dk.supportsystem.entity.User;
+import com.dk.supportsystem.enums.UserImportFormat;
+import com.dk.supportsystem.enums.UserRole;
+import com.dk.supportsystem.exception.BadRequestException;
+import com.dk.supportsystem.exception.ResourceNotFoundException;
+import com.dk.supportsystem.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates users from a streamed CSV or NDJSON upload. Rows are processed in chunks: one query checks the
+ * chunk's emails against the database, passwords are hashed in parallel on a bounded pool, and the users
+ * are inserted with a single JDBC batch per chunk.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO users (email, password, full_name, role, organization_id, is_active, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, true, ?, ?) ON CONFLICT (email) DO NOTHING";
+    
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxRows;
+    private final ExecutorService hashPool;
+    
+    public UserImportService(UserRepository userRepository,
+                             PasswordEncoder passwordEncoder,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             @Value("${user-import.batch-size}") int batchSize,
+                             @Value("${user-import.max-rows}") int maxRows,
+                             @Value("${user-import.hash-threads}") int hashThreads) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+        // BCrypt is CPU-bound, so more threads than cores only queue on the scheduler
+        this.hashPool = Executors.newFixedThreadPool(
+                hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors());
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        hashPool.shutdown();
+    }
+    
+    public UserImportResponse importUsers(InputStream input, UserImportFormat format, Long adminId)
+            throws IOException {
+        User admin = userRepository.findById(adminId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        if (admin.getRole() != UserRole.ADMIN) {
+            throw new BadRequestException("Only admins can import users");
+        }
+        Long organizationId = admin.getOrganization().getId();
+        
+        List<UserImportRowResult> results = new ArrayList<>();
+        List<PendingRow> chunk = new ArrayList<>(batchSize);
+        Set<String> seen = new HashSet<>();
+        int rows = 0;
+        
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            int lineNumber = 0;
+            Map<String, Integer> columns = null;
+            if (format == UserImportFormat.CSV) {
+                String header = reader.readLine();
+                lineNumber++;
+                if (header == null) {
+                    throw new BadRequestException("CSV header is missing");
+                }
+                columns = csvColumns(header);
+            }
+            
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (++rows > maxRows) {
+                    results.add(failed(lineNumber, null, "Import is limited to " + maxRows + " rows"));
+                    break;
+                }
+                
+                UserImportRow row;
+                try {
+                    row = format == UserImportFormat.CSV
+                            ? parseCsvRow(line, columns)
+                            : objectMapper.readValue(line, UserImportRow.class);
+                } catch (JacksonException | IllegalArgumentException e) {
+                    results.add(failed(lineNumber, null, "Malformed row"));
+                    continue;
+                }
+                
+                String error = validate(row);
+                if (error != null) {
+                    results.add(failed(lineNumber, row.getEmail(), error));
+                    continue;
+                }
+                row.setEmail(row.getEmail().trim());
+                if (!seen.add(row.getEmail())) {
+                    results.add(failed(lineNumber, row.getEmail(), "Duplicate email in import"));
+                    continue;
+                }
+                
+                chunk.add(new PendingRow(lineNumber, row));
+                if (chunk.size() >= batchSize) {
+                    insertChunk(chunk, organizationId, results);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, organizationId, results);
+        }
+        
+        results.sort(Comparator.comparingInt(UserImportRowResult::getLine));
+        int created = (int) results.stream().filter(UserImportRowResult::isCreated).count();
+        log.info("User import into organization {}: {} created, {} failed",
+                organizationId, created, results.size() - created);
+        return UserImportResponse.builder()
+                .total(results.size())
+                .created(created)
+                .failed(results.size() - created)
+                .results(results)
+                .build();
+    }
+    
+    private void insertChunk(List<PendingRow> chunk, Long organizationId, List<UserImportRowResult> results) {
+        Set<String> existing = new HashSet<>(userRepository.findExistingEmails(
+                chunk.stream().map(pending -> pending.row().getEmail()).toList()));
+        
+        List<PendingRow> fresh = new ArrayList<>(chunk.size());
+        for (PendingRow pending : chunk) {
+            if (existing.contains(pending.row().getEmail())) {
+                results.add(failed(pending.line(), pending.row().getEmail(), "Email already exists"));
+            } else {
+                fresh.add(pending);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+        
+        List<CompletableFuture<String>> hashes = fresh.stream()
+                .map(pending -> CompletableFuture.supplyAsync(
+                        () -> passwordEncoder.encode(pending.row().getPassword()), hashPool))
+                .toList();
+        
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(fresh.size());
+        for (int i = 0; i < fresh.size(); i++) {
+            UserImportRow row = fresh.get(i).row();
+            UserRole role = row.getRole() != null ? row.getRole() : UserRole.AGENT;
+            batch.add(new Object[]{
+                    row.getEmail(), hashes.get(i).join(), row.getFullName().trim(), role.name(),
+                    organizationId, now, now
+            });
+        }
+        
+        int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch));
+        for (int i = 0; i < fresh.size(); i++) {
+            PendingRow pending = fresh.get(i);
+            // Zero rows means a concurrent signup took the email between the lookup and the insert
+            if (counts != null && counts[i] == 0) {
+                results.add(failed(pending.line(), pending.row().getEmail(), "Email already exists"));
+            } else {
+                results.add(UserImportRowResult.builder()
+                        .line(pending.line())
+                        .email(pending.row().getEmail())
+                        .created(true)
+                        .build());
+            }
+        }
+    }
+    
+    private String validate(UserImportRow row) {
+        Set<ConstraintViolation<UserImportRow>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .reduce((left, right) -> left + "; " + right)
+                .orElse(null);
+    }
+    
+    private static Map<String, Integer> csvColumns(String header) {
+        List<String> names = splitCsv(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("email", "fullname", "password")) {
+            if (!columns.containsKey(required)) {
+                throw new BadRequestException("CSV header must contain email, fullName and password");
+            }
+        }
+        return columns;
+    }
+    
+    private static UserImportRow parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(line);
+        String role = field(fields, columns.get("role"));
+        return new UserImportRow(
+                field(fields, columns.get("email")),
+                field(fields, columns.get("fullname")),
+                field(fields, columns.get("password")),
+                role != null && !role.isBlank() ? UserRole.valueOf(role.trim().toUpperCase(Locale.ROOT)) : null);
+    }
+    
+    private static String field(List<String> fields, Integer index) {
+        return index != null && index < fields.size() ? fields.get(index) : null;
+    }
+    
+    // RFC 4180 fields on a single line: quoted fields may contain commas and doubled quotes
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+    
+    private static UserImportRowResult failed(int line, String email, String error) {
+        return UserImportRowResult.builder()
+                .line(line)
+                .email(email)
+                .created(false)
+                .error(error)
+                .build();
+    }
+    
+    private record PendingRow(int line, UserImportRow row) {
+    }
+}
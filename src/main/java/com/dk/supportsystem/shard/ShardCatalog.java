@@ -0,0 +1,88 @@
+package com.dk.supportsystem.shard;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * The tenant databases this node knows about. With sharding disabled it only contains the default
+ * database, so code that walks every shard behaves exactly as before.
+ */
+@Component
+public class ShardCatalog {
+    
+    public static final String DEFAULT_SHARD = "default";
+    
+    private final Map<String, ShardingProperties.Shard> shards;
+    
+    public ShardCatalog(ShardingProperties properties,
+                        @Value("${spring.datasource.url}") String url,
+                        @Value("${spring.datasource.username}") String username,
+                        @Value("${spring.datasource.password}") String password) {
+        Map<String, ShardingProperties.Shard> shards = new LinkedHashMap<>();
+        shards.put(DEFAULT_SHARD, new ShardingProperties.Shard(url, username, password, 0L));
+        if (properties.enabled() && properties.shards() != null) {
+            properties.shards().forEach((name, shard) -> {
+                if (shards.putIfAbsent(name, shard) != null) {
+                    throw new IllegalArgumentException("Shard name '" + name + "' is reserved");
+                }
+            });
+        }
+        this.shards = Collections.unmodifiableMap(shards);
+    }
+    
+    public Set<String> names() {
+        return shards.keySet();
+    }
+    
+    public boolean contains(String name) {
+        return shards.containsKey(name);
+    }
+    
+    public ShardingProperties.Shard get(String name) {
+        return shards.get(name);
+    }
+    
+    /**
+     * Opens a plain connection outside the pools, for sessions that must outlive a transaction.
+     */
+    public Connection connect(String name) throws SQLException {
+        ShardingProperties.Shard shard = shards.get(name);
+        return DriverManager.getConnection(shard.url(), shard.username(), shard.password());
+    }
+    
+    public void forEach(Runnable action) {
+        for (String name : shards.keySet()) {
+            ShardContext.run(name, action);
+        }
+    }
+    
+    public <T> List<T> collect(Supplier<? extends List<T>> query) {
+        List<T> results = new ArrayList<>();
+        for (String name : shards.keySet()) {
+            results.addAll(ShardContext.call(name, query));
+        }
+        return results;
+    }
+    
+    public <T> Optional<T> findFirst(Supplier<Optional<T>> query) {
+        for (String name : shards.keySet()) {
+            Optional<T> result = ShardContext.call(name, query);
+            if (result.isPresent()) {
+                return result;
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,49 @@
+package com.dk.supportsystem.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard of the current thread, read by {@link ShardRoutingDataSource} whenever a connection is taken.
+ * It has to be set before a transaction starts: a transaction keeps the connection it began with.
+ */
+public final class ShardContext {
+    
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    
+    private ShardContext() {
+    }
+    
+    public static String current() {
+        String shard = CURRENT.get();
+        return shard != null ? shard : ShardCatalog.DEFAULT_SHARD;
+    }
+    
+    public static void set(String shard) {
+        CURRENT.set(shard);
+    }
+    
+    public static void clear() {
+        CURRENT.remove();
+    }
+    
+    public static <T> T call(String shard, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+    
+    public static void run(String shard, Runnable action) {
+        call(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,128 @@
+package com.dk.supportsystem.shard;
+
+import com.dk.supportsystem.cluster.ClusterSubscriber;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps organizations to shards. The directory table lives in the default shard and is cached in full on
+ * every node; changes made by a tenant move reach other nodes as organization events on the cluster bus.
+ */
+@Slf4j
+@Component
+public class ShardDirectory implements ClusterSubscriber {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate directoryTransaction;
+    private final ShardingProperties properties;
+    private final ShardCatalog catalog;
+    
+    private final Map<Long, Placement> placements = new ConcurrentHashMap<>();
+    
+    public ShardDirectory(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          ShardingProperties properties,
+                          ShardCatalog catalog) {
+        this.jdbcTemplate = jdbcTemplate;
+        // The directory must never ride along in a transaction that was opened on a tenant shard
+        this.directoryTransaction = new TransactionTemplate(transactionManager);
+        this.directoryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties;
+        this.catalog = catalog;
+    }
+    
+    @PostConstruct
+    void load() {
+        if (!properties.enabled()) {
+            return;
+        }
+        placements.clear();
+        onDirectory(() -> jdbcTemplate.query("SELECT organization_id, shard, moving FROM organization_shards",
+                (RowCallbackHandler) rs -> placements.put(rs.getLong(1),
+                        new Placement(rs.getString(2), rs.getBoolean(3)))));
+        log.info("Loaded shard directory with {} placed organizations", placements.size());
+    }
+    
+    public String shardOf(Long organizationId) {
+        Placement placement = placements.get(organizationId);
+        return placement != null ? placement.shard() : ShardCatalog.DEFAULT_SHARD;
+    }
+    
+    public boolean isMoving(Long organizationId) {
+        Placement placement = placements.get(organizationId);
+        return placement != null && placement.moving();
+    }
+    
+    /**
+     * Organizations being moved right now; background jobs leave their rows alone until the move is over.
+     */
+    public Set<Long> movingOrganizations() {
+        Set<Long> moving = new HashSet<>();
+        placements.forEach((organizationId, placement) -> {
+            if (placement.moving()) {
+                moving.add(organizationId);
+            }
+        });
+        return moving;
+    }
+    
+    public String newOrganizationShard() {
+        String shard = properties.newOrganizationShard();
+        return shard != null && catalog.contains(shard) ? shard : ShardCatalog.DEFAULT_SHARD;
+    }
+    
+    public Map<Long, Placement> placements() {
+        return Map.copyOf(placements);
+    }
+    
+    public void place(Long organizationId, String shard, boolean moving) {
+        if (!catalog.contains(shard)) {
+            throw new IllegalArgumentException("Unknown shard " + shard);
+        }
+        onDirectory(() -> jdbcTemplate.update("INSERT INTO organization_shards (organization_id, shard, moving, updated_at) " +
+                "VALUES (?, ?, ?, ?) ON CONFLICT (organization_id) DO UPDATE " +
+                "SET shard = EXCLUDED.shard, moving = EXCLUDED.moving, updated_at = EXCLUDED.updated_at",
+                organizationId, shard, moving, LocalDateTime.now()));
+        placements.put(organizationId, new Placement(shard, moving));
+    }
+    
+    @Override
+    public void onTicketsChanged(Set<Long> ticketIds) {
+    }
+    
+    @Override
+    public void onOrganizationsChanged(Set<Long> organizationIds) {
+        if (!properties.enabled()) {
+            return;
+        }
+        for (Long organizationId : organizationIds) {
+            onDirectory(() -> jdbcTemplate.query("SELECT shard, moving FROM organization_shards WHERE organization_id = ?",
+                    (RowCallbackHandler) rs -> placements.put(organizationId,
+                            new Placement(rs.getString(1), rs.getBoolean(2))), organizationId));
+        }
+    }
+    
+    @Override
+    public void onResync() {
+        load();
+    }
+    
+    private void onDirectory(Runnable action) {
+        ShardContext.run(ShardCatalog.DEFAULT_SHARD, () -> directoryTransaction.executeWithoutResult(status -> action.run()));
+    }
+    
+    public record Placement(String shard, boolean moving) {
+    }
+}
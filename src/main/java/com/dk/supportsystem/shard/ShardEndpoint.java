@@ -0,0 +1,36 @@
+package com.dk.supportsystem.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Operator access to tenant placement at {@code /actuator/shards}. Not exposed unless added to
+ * {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@Endpoint(id = "shards")
+@RequiredArgsConstructor
+public class ShardEndpoint {
+    
+    private final ShardCatalog catalog;
+    private final ShardDirectory directory;
+    private final TenantMover tenantMover;
+    
+    @ReadOperation
+    public Map<String, Object> shards() {
+        return Map.of("shards", Set.copyOf(catalog.names()), "placements", directory.placements());
+    }
+    
+    @WriteOperation
+    public Map<String, Object> move(@Selector Long organizationId, String shard) {
+        tenantMover.move(organizationId, shard);
+        return Map.of("organizationId", organizationId, "shard", directory.shardOf(organizationId));
+    }
+}
@@ -0,0 +1,22 @@
+package com.dk.supportsystem.shard;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Additional tenant databases. The database configured under {@code spring.datasource} is always shard
+ * {@value ShardCatalog#DEFAULT_SHARD} and also holds the organization directory.
+ *
+ * @param idBase first id handed out by the shard's sequences, so rows keep their ids when a tenant moves
+ */
+@ConfigurationProperties(prefix = "sharding")
+public record ShardingProperties(boolean enabled,
+                                 String newOrganizationShard,
+                                 Duration moveDrain,
+                                 Map<String, Shard> shards) {
+    
+    public record Shard(String url, String username, String password, long idBase) {
+    }
+}
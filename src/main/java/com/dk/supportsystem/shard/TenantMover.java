@@ -0,0 +1,193 @@
+package com.dk.supportsystem.shard;
+
+import com.dk.supportsystem.cluster.ClusterBus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Moves an organization to another shard while it stays readable. The organization is marked as moving,
+ * which makes nodes reject its writes with 503 + Retry-After and the sharded jobs skip it; after a short
+ * drain its rows are copied to the target in one transaction, read from a single snapshot of the source,
+ * the directory is flipped and the source rows are deleted. Ids are kept
+ * as they are, which is safe because every shard allocates from its own {@code id-base}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TenantMover {
+    
+    private static final int BATCH_SIZE = 1000;
+    
+    private static final String TICKETS_OF_ORG = "SELECT id FROM tickets WHERE organization_id = ?";
+    
+    // Parents before children; deletes run in reverse
+    private static final List<TableSlice> TABLES = List.of(
+            new TableSlice("organizations", "id = ?"),
+            new TableSlice("users", "organization_id = ?"),
+            new TableSlice("tickets", "organization_id = ?"),
+            new TableSlice("sla_config", "ticket_id IN (" + TICKETS_OF_ORG + ")"),
+            new TableSlice("ticket_messages", "ticket_id IN (" + TICKETS_OF_ORG + ")"),
+            new TableSlice("message_attachments", "message_id IN (SELECT id FROM ticket_messages " +
+                    "WHERE ticket_id IN (" + TICKETS_OF_ORG + "))"),
+            new TableSlice("ticket_history", "organization_id = ?"),
+            new TableSlice("idempotency_keys", "user_id IN (SELECT id FROM users WHERE organization_id = ?)"),
+            new TableSlice("mail_imports", "organization_id = ?"),
+            new TableSlice("mail_message_ids", "organization_id = ?"));
+    
+    private final ShardCatalog catalog;
+    private final ShardDirectory directory;
+    private final ShardingProperties properties;
+    private final ClusterBus clusterBus;
+    
+    public synchronized void move(Long organizationId, String target) {
+        String source = directory.shardOf(organizationId);
+        if (!catalog.contains(target)) {
+            throw new IllegalArgumentException("Unknown shard " + target);
+        }
+        if (source.equals(target)) {
+            return;
+        }
+        
+        log.info("Moving organization {} from shard {} to {}", organizationId, source, target);
+        announce(organizationId, source, true);
+        boolean copied = false;
+        try {
+            // Let writes that passed the check before the announcement finish on the source
+            Thread.sleep(properties.moveDrain().toMillis());
+            copy(organizationId, source, target);
+            copied = true;
+            announce(organizationId, target, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rollBack(organizationId, source, target, copied);
+            throw new IllegalStateException("Tenant move interrupted", e);
+        } catch (SQLException | RuntimeException e) {
+            rollBack(organizationId, source, target, copied);
+            throw new IllegalStateException("Failed to move organization " + organizationId, e);
+        }
+        
+        try {
+            delete(organizationId, source);
+        } catch (SQLException e) {
+            // The tenant is live on the target; stale source rows are unreachable and only cost space
+            log.warn("Moved organization {} but failed to clean up shard {}", organizationId, source, e);
+        }
+        log.info("Moved organization {} to shard {}", organizationId, target);
+    }
+    
+    private void announce(Long organizationId, String shard, boolean moving) {
+        directory.place(organizationId, shard, moving);
+        ShardContext.run(ShardCatalog.DEFAULT_SHARD, () -> clusterBus.organizationChanged(organizationId));
+    }
+    
+    private void rollBack(Long organizationId, String source, String target, boolean copied) {
+        try {
+            if (copied) {
+                delete(organizationId, target);
+            }
+        } catch (SQLException e) {
+            log.error("Failed to remove partial copy of organization {} from shard {}", organizationId, target, e);
+        }
+        announce(organizationId, source, false);
+    }
+    
+    private void copy(Long organizationId, String source, String target) throws SQLException {
+        try (Connection from = catalog.connect(source);
+             Connection to = catalog.connect(target)) {
+            // Cursor-based fetching only works inside a transaction
+            from.setAutoCommit(false);
+            from.setReadOnly(true);
+            // Every table from the same snapshot, so children never miss or outlive their parents
+            from.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            to.setAutoCommit(false);
+            try {
+                for (TableSlice table : TABLES) {
+                    int rows = copyTable(from, to, table, organizationId);
+                    log.debug("Copied {} rows of {} for organization {}", rows, table.name(), organizationId);
+                }
+                to.commit();
+            } catch (SQLException | RuntimeException e) {
+                to.rollback();
+                throw e;
+            } finally {
+                from.rollback();
+            }
+        }
+    }
+    
+    private int copyTable(Connection from, Connection to, TableSlice table, Long organizationId) throws SQLException {
+        try (PreparedStatement select = from.prepareStatement(
+                "SELECT * FROM " + table.name() + " WHERE " + table.predicate())) {
+            select.setFetchSize(BATCH_SIZE);
+            bindOrganization(select, table, organizationId);
+            try (ResultSet rs = select.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                StringJoiner names = new StringJoiner(", ");
+                StringJoiner placeholders = new StringJoiner(", ");
+                for (int i = 1; i <= columns; i++) {
+                    names.add(meta.getColumnName(i));
+                    placeholders.add("?");
+                }
+                
+                int rows = 0;
+                try (PreparedStatement insert = to.prepareStatement(
+                        "INSERT INTO " + table.name() + " (" + names + ") VALUES (" + placeholders + ")")) {
+                    while (rs.next()) {
+                        for (int i = 1; i <= columns; i++) {
+                            insert.setObject(i, rs.getObject(i), meta.getColumnType(i));
+                        }
+                        insert.addBatch();
+                        if (++rows % BATCH_SIZE == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                    insert.executeBatch();
+                }
+                return rows;
+            }
+        }
+    }
+    
+    private void delete(Long organizationId, String shard) throws SQLException {
+        try (Connection connection = catalog.connect(shard)) {
+            connection.setAutoCommit(false);
+            try {
+                for (TableSlice table : TABLES.reversed()) {
+                    try (PreparedStatement delete = connection.prepareStatement(
+                            "DELETE FROM " + table.name() + " WHERE " + table.predicate())) {
+                        bindOrganization(delete, table, organizationId);
+                        delete.executeUpdate();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+    
+    private static void bindOrganization(PreparedStatement statement, TableSlice table, Long organizationId)
+            throws SQLException {
+        for (int i = 1; i <= table.parameterCount(); i++) {
+            statement.setLong(i, organizationId);
+        }
+    }
+    
+    private record TableSlice(String name, String predicate) {
+        
+        int parameterCount() {
+            return (int) predicate.chars().filter(c -> c == '?').count();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.dk.supportsystem.storage;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed file store. Blobs are hashed while they are streamed to a temp file and then moved to
+ * a path derived from their SHA-256, so identical uploads share one file on disk.
+ */
+@Component
+public class BlobStore {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    @Value("${attachments.directory}")
+    private String directory;
+    
+    private Path root;
+    private Path tmp;
+    
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(directory);
+        tmp = root.resolve("tmp");
+        Files.createDirectories(tmp);
+    }
+    
+    public StoredBlob put(InputStream in) throws IOException {
+        MessageDigest digest = newDigest();
+        Path tempFile = Files.createTempFile(tmp, "upload-", ".part");
+        long size = 0;
+        try {
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tempFile), digest)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+            
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            Path target = resolve(sha256);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // A concurrent upload of the same content won the move
+                }
+            }
+            return new StoredBlob(sha256, size);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+    
+    public Path resolve(String sha256) {
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+    
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
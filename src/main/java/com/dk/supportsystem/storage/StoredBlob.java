@@ -0,0 +1,11 @@
+package com.dk.supportsystem.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class StoredBlob {
+    private String sha256;
+    private long sizeBytes;
+}
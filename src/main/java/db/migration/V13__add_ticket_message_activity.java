@@ -0,0 +1,124 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Adds tickets.last_message_at, last_message_by and message_count without blocking writers for the
+ * length of the backfill. The columns are added nullable (a catalog-only change) and last_message_at then
+ * defaults to the insert time, so the previous release, which does not know the column, can still create
+ * tickets once NOT NULL is in place. Existing rows are filled in id ranges that each commit on their own,
+ * NOT NULL is enforced through a validated check constraint so that SET NOT NULL skips its table scan,
+ * and the index is built concurrently. None of that is possible inside one transaction, so this migration
+ * runs without one. Tickets that got messages from the previous release while the backfill ran are
+ * recounted before the constraint is added.
+ */
+public class V13__add_ticket_message_activity extends BaseJavaMigration {
+    
+    private static final int BATCH_SIZE = 5000;
+    
+    // Message timestamps come from application clocks, so allow for some skew against the database
+    private static final Duration RECOUNT_MARGIN = Duration.ofMinutes(5);
+    
+    private static final String NEXT_BATCH_END =
+            "SELECT MAX(id) FROM (SELECT id FROM tickets WHERE id > ? ORDER BY id LIMIT " + BATCH_SIZE + ") batch";
+    
+    private static final String BACKFILL_WITH_MESSAGES =
+            "UPDATE tickets t SET message_count = m.message_count, last_message_at = m.last_message_at, " +
+            "last_message_by = m.last_message_by " +
+            "FROM (SELECT ticket_id, COUNT(*) AS message_count, MAX(created_at) AS last_message_at, " +
+            "(ARRAY_AGG(user_id ORDER BY created_at DESC, id DESC))[1] AS last_message_by " +
+            "FROM ticket_messages WHERE ticket_id > ? AND ticket_id <= ? GROUP BY ticket_id) m " +
+            "WHERE t.id = m.ticket_id";
+    
+    private static final String RECOUNT_SINCE =
+            "UPDATE tickets t SET message_count = m.message_count, last_message_at = m.last_message_at, " +
+            "last_message_by = m.last_message_by " +
+            "FROM (SELECT ticket_id, COUNT(*) AS message_count, MAX(created_at) AS last_message_at, " +
+            "(ARRAY_AGG(user_id ORDER BY created_at DESC, id DESC))[1] AS last_message_by " +
+            "FROM ticket_messages WHERE ticket_id IN (SELECT ticket_id FROM ticket_messages WHERE created_at >= ?) " +
+            "GROUP BY ticket_id) m " +
+            "WHERE t.id = m.ticket_id";
+    
+    private static final String BACKFILL_WITHOUT_MESSAGES =
+            "UPDATE tickets SET last_message_at = created_at " +
+            "WHERE id > ? AND id <= ? AND last_message_at IS NULL";
+    
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+    
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE tickets ADD COLUMN IF NOT EXISTS last_message_at TIMESTAMP, " +
+                    "ADD COLUMN IF NOT EXISTS last_message_by BIGINT, " +
+                    "ADD COLUMN IF NOT EXISTS message_count INTEGER NOT NULL DEFAULT 0");
+            // Separate from ADD COLUMN so that only new rows take the default and the backfill still finds the old ones
+            statement.execute("ALTER TABLE tickets ALTER COLUMN last_message_at SET DEFAULT LOCALTIMESTAMP");
+        }
+        
+        LocalDateTime startedAt = databaseTime(connection);
+        try (PreparedStatement nextBatch = connection.prepareStatement(NEXT_BATCH_END);
+             PreparedStatement withMessages = connection.prepareStatement(BACKFILL_WITH_MESSAGES);
+             PreparedStatement withoutMessages = connection.prepareStatement(BACKFILL_WITHOUT_MESSAGES)) {
+            long from = 0;
+            for (Long to = nextBatchEnd(nextBatch, from); to != null; from = to, to = nextBatchEnd(nextBatch, from)) {
+                backfill(withMessages, from, to);
+                backfill(withoutMessages, from, to);
+            }
+            // Rows inserted by the previous release before the default was set
+            backfill(withoutMessages, 0, Long.MAX_VALUE);
+        }
+        
+        // The previous release keeps adding messages without maintaining the new columns; recount those tickets
+        try (PreparedStatement recount = connection.prepareStatement(RECOUNT_SINCE)) {
+            recount.setTimestamp(1, Timestamp.valueOf(startedAt.minus(RECOUNT_MARGIN)));
+            recount.executeUpdate();
+        }
+        
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE tickets ADD CONSTRAINT chk_tickets_last_message_at_not_null " +
+                    "CHECK (last_message_at IS NOT NULL) NOT VALID");
+            statement.execute("ALTER TABLE tickets VALIDATE CONSTRAINT chk_tickets_last_message_at_not_null");
+            statement.execute("ALTER TABLE tickets ALTER COLUMN last_message_at SET NOT NULL");
+            statement.execute("ALTER TABLE tickets DROP CONSTRAINT chk_tickets_last_message_at_not_null");
+            statement.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tickets_org_last_message_at " +
+                    "ON tickets (organization_id, last_message_at DESC)");
+        }
+    }
+    
+    private static LocalDateTime databaseTime(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT LOCALTIMESTAMP")) {
+            rs.next();
+            return rs.getTimestamp(1).toLocalDateTime();
+        }
+    }
+    
+    // Keyset paging over the ids that exist, so sparse or offset id ranges cost nothing
+    private static Long nextBatchEnd(PreparedStatement statement, long fromExclusive) throws Exception {
+        statement.setLong(1, fromExclusive);
+        try (ResultSet rs = statement.executeQuery()) {
+            rs.next();
+            long to = rs.getLong(1);
+            return rs.wasNull() ? null : to;
+        }
+    }
+    
+    private static void backfill(PreparedStatement statement, long fromExclusive, long toInclusive) throws Exception {
+        statement.setLong(1, fromExclusive);
+        statement.setLong(2, toInclusive);
+        statement.executeUpdate();
+    }
+}
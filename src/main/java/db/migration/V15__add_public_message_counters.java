@@ -0,0 +1,98 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Adds tickets.public_message_count and last_public_message_at, the counterparts of message_count and
+ * last_message_at that ignore internal notes, and a partial index for reading threads without them.
+ * Backfilled in committed id ranges and indexed concurrently like V13, so it runs without a transaction.
+ * Tickets that got messages while the backfill ran are recounted at the end.
+ */
+public class V15__add_public_message_counters extends BaseJavaMigration {
+    
+    private static final int BATCH_SIZE = 5000;
+    
+    // Message timestamps come from application clocks, so allow for some skew against the database
+    private static final Duration RECOUNT_MARGIN = Duration.ofMinutes(5);
+    
+    private static final String NEXT_BATCH_END =
+            "SELECT MAX(id) FROM (SELECT id FROM tickets WHERE id > ? ORDER BY id LIMIT " + BATCH_SIZE + ") batch";
+    
+    private static final String BACKFILL =
+            "UPDATE tickets t SET public_message_count = m.message_count, last_public_message_at = m.last_message_at " +
+            "FROM (SELECT ticket_id, COUNT(*) AS message_count, MAX(created_at) AS last_message_at " +
+            "FROM ticket_messages WHERE ticket_id > ? AND ticket_id <= ? AND is_internal = false " +
+            "GROUP BY ticket_id) m " +
+            "WHERE t.id = m.ticket_id";
+    
+    private static final String RECOUNT_SINCE =
+            "UPDATE tickets t SET public_message_count = m.message_count, last_public_message_at = m.last_message_at " +
+            "FROM (SELECT ticket_id, COUNT(*) AS message_count, MAX(created_at) AS last_message_at " +
+            "FROM ticket_messages WHERE is_internal = false AND ticket_id IN " +
+            "(SELECT ticket_id FROM ticket_messages WHERE created_at >= ?) " +
+            "GROUP BY ticket_id) m " +
+            "WHERE t.id = m.ticket_id";
+    
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+    
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE tickets ADD COLUMN IF NOT EXISTS public_message_count INTEGER NOT NULL DEFAULT 0, " +
+                    "ADD COLUMN IF NOT EXISTS last_public_message_at TIMESTAMP");
+        }
+        
+        LocalDateTime startedAt = databaseTime(connection);
+        try (PreparedStatement nextBatch = connection.prepareStatement(NEXT_BATCH_END);
+             PreparedStatement backfill = connection.prepareStatement(BACKFILL)) {
+            long from = 0;
+            for (Long to = nextBatchEnd(nextBatch, from); to != null; from = to, to = nextBatchEnd(nextBatch, from)) {
+                backfill.setLong(1, from);
+                backfill.setLong(2, to);
+                backfill.executeUpdate();
+            }
+        }
+        
+        // The previous release keeps adding messages without maintaining the new columns; recount those tickets
+        try (PreparedStatement recount = connection.prepareStatement(RECOUNT_SINCE)) {
+            recount.setTimestamp(1, Timestamp.valueOf(startedAt.minus(RECOUNT_MARGIN)));
+            recount.executeUpdate();
+        }
+        
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_ticket_messages_ticket_public_created_at " +
+                    "ON ticket_messages (ticket_id, created_at) WHERE is_internal = false");
+        }
+    }
+    
+    private static LocalDateTime databaseTime(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT LOCALTIMESTAMP")) {
+            rs.next();
+            return rs.getTimestamp(1).toLocalDateTime();
+        }
+    }
+    
+    // Keyset paging over the ids that exist, so sparse or offset id ranges cost nothing
+    private static Long nextBatchEnd(PreparedStatement statement, long fromExclusive) throws Exception {
+        statement.setLong(1, fromExclusive);
+        try (ResultSet rs = statement.executeQuery()) {
+            rs.next();
+            long to = rs.getLong(1);
+            return rs.wasNull() ? null : to;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+-- No foreign key to tickets: history outlives archival of the ticket rows
+CREATE TABLE ticket_history (
+    id BIGSERIAL PRIMARY KEY,
+    ticket_id BIGINT NOT NULL,
+    organization_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    events BYTEA NOT NULL
+);
+
+CREATE INDEX idx_ticket_history_ticket ON ticket_history(ticket_id, id);
@@ -0,0 +1,2 @@
+-- No foreign key: the original ticket may be archived before its duplicates
+ALTER TABLE tickets ADD COLUMN duplicate_of_id BIGINT;
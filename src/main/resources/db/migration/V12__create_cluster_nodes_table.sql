@@ -0,0 +1,5 @@
+CREATE TABLE cluster_nodes (
+    node_id VARCHAR(36) PRIMARY KEY,
+    started_at TIMESTAMP NOT NULL,
+    heartbeat_at TIMESTAMP NOT NULL
+);
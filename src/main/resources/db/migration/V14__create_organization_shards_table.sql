@@ -0,0 +1,7 @@
+-- Directory of tenant placement; only the copy in the default shard is read
+CREATE TABLE organization_shards (
+    organization_id BIGINT PRIMARY KEY,
+    shard VARCHAR(64) NOT NULL,
+    moving BOOLEAN NOT NULL DEFAULT false,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
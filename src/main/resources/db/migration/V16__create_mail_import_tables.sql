@@ -0,0 +1,33 @@
+CREATE TABLE mail_imports (
+    id BIGSERIAL PRIMARY KEY,
+    organization_id BIGINT NOT NULL REFERENCES organizations(id),
+    requested_by BIGINT NOT NULL REFERENCES users(id),
+    source VARCHAR(1000) NOT NULL,
+    format VARCHAR(16) NOT NULL CHECK (format IN ('MBOX', 'MAILDIR')),
+    ticket_status VARCHAR(50) NOT NULL,
+    priority VARCHAR(50) NOT NULL,
+    status VARCHAR(16) NOT NULL CHECK (status IN ('QUEUED', 'RUNNING', 'COMPLETED', 'FAILED')),
+    checkpoint_file VARCHAR(1000),
+    checkpoint_offset BIGINT NOT NULL DEFAULT 0,
+    messages_read BIGINT NOT NULL DEFAULT 0,
+    tickets_created BIGINT NOT NULL DEFAULT 0,
+    replies_added BIGINT NOT NULL DEFAULT 0,
+    skipped BIGINT NOT NULL DEFAULT 0,
+    error VARCHAR(1000),
+    version BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP
+);
+
+CREATE INDEX idx_mail_imports_active ON mail_imports(id) WHERE status IN ('QUEUED', 'RUNNING');
+
+-- No foreign key to tickets: keys of archived tickets stay so their mail is not imported again
+CREATE TABLE mail_message_ids (
+    id BIGSERIAL PRIMARY KEY,
+    organization_id BIGINT NOT NULL REFERENCES organizations(id),
+    message_id VARCHAR(998) NOT NULL,
+    ticket_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_mail_message_ids_org_message UNIQUE (organization_id, message_id)
+);
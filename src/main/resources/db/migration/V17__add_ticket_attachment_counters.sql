@@ -0,0 +1,3 @@
+-- Part of the message thread ETag; only has to change when an attachment is added, so no backfill
+ALTER TABLE tickets ADD COLUMN attachment_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN last_attachment_at TIMESTAMP;
@@ -19,6 +19,3 @@ CREATE TABLE users (
 
 CREATE INDEX idx_users_email ON users(email);
 CREATE INDEX idx_users_organization ON users(organization_id);
-
-DROP TABLE IF EXISTS organizations CASCADE;
-DROP TABLE IF EXISTS users CASCADE;
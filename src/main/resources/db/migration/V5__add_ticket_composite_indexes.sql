@@ -0,0 +1,11 @@
+CREATE INDEX idx_tickets_org_created_at ON tickets(organization_id, created_at DESC);
+CREATE INDEX idx_tickets_org_status_created_at ON tickets(organization_id, status, created_at DESC);
+CREATE INDEX idx_tickets_org_assigned_created_at ON tickets(organization_id, assigned_to, created_at DESC);
+CREATE INDEX idx_tickets_assigned_status_open ON tickets(assigned_to, status) WHERE status <> 'CLOSED';
+CREATE INDEX idx_tickets_closed_at ON tickets(closed_at, id) WHERE status = 'CLOSED';
+
+CREATE INDEX idx_ticket_messages_ticket_created_at ON ticket_messages(ticket_id, created_at);
+
+-- Leading columns of the composites above already serve these lookups
+DROP INDEX idx_tickets_organization;
+DROP INDEX idx_ticket_messages_ticket;
@@ -0,0 +1,4 @@
+ALTER TABLE sla_config ADD COLUMN first_response_at TIMESTAMP;
+ALTER TABLE sla_config ADD COLUMN first_response_by_agent BOOLEAN;
+
+CREATE INDEX idx_sla_awaiting_first_response ON sla_config(ticket_id) WHERE first_response_met = false;
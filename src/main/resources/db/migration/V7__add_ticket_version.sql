@@ -0,0 +1 @@
+ALTER TABLE tickets ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
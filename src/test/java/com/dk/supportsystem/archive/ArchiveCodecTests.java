@@ -0,0 +1,126 @@
+package com.dk.supportsystem.archive;
+
+import com.dk.supportsystem.enums.TicketPriority;
+import com.dk.supportsystem.enums.TicketStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArchiveCodecTests {
+
+    @Test
+    void roundTripsBoundaryValues() throws IOException {
+        ArchivedMessage message = ArchivedMessage.builder()
+                .id(Long.MAX_VALUE)
+                .userId(-1L)
+                .message("")
+                .isInternal(true)
+                .createdAt(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_999))
+                .build();
+        message.getAttachments().add(ArchivedAttachment.builder()
+                .id(Long.MIN_VALUE)
+                .fileName("Überweisung 📎.pdf")
+                .contentType(null)
+                .sizeBytes(0L)
+                .sha256(null)
+                .createdAt(LocalDateTime.MIN)
+                .build());
+        ArchivedTicket withEverything = ArchivedTicket.builder()
+                .id(Long.MAX_VALUE)
+                .title("Drucker brennt — 🔥")
+                .description(null)
+                .status(TicketStatus.CLOSED)
+                .priority(TicketPriority.URGENT)
+                .organizationId(Long.MIN_VALUE)
+                .createdById(0L)
+                .assignedToId(null)
+                .createdAt(LocalDateTime.of(1900, 1, 1, 0, 0))
+                .updatedAt(LocalDateTime.MAX)
+                .resolvedAt(null)
+                .closedAt(LocalDateTime.of(2026, 3, 1, 10, 0, 0, 1))
+                .duplicateOfId(Long.MAX_VALUE)
+                .hasSla(true)
+                .firstResponseDeadline(LocalDateTime.of(2026, 3, 1, 12, 0))
+                .resolutionDeadline(null)
+                .firstResponseMet(true)
+                .resolutionMet(false)
+                .slaCreatedAt(LocalDateTime.of(2026, 3, 1, 10, 0))
+                .firstResponseAt(null)
+                .firstResponseByAgent(null)
+                .messages(new ArrayList<>(List.of(message)))
+                .build();
+        ArchivedTicket bare = ArchivedTicket.builder()
+                .id(1L)
+                .title("")
+                .description("")
+                .status(TicketStatus.OPEN)
+                .priority(TicketPriority.LOW)
+                .organizationId(1L)
+                .createdById(1L)
+                .assignedToId(Long.MIN_VALUE)
+                .duplicateOfId(null)
+                .build();
+
+        assertThat(roundTrip(List.of(withEverything, bare))).containsExactly(withEverything, bare);
+        assertThat(roundTrip(List.of())).isEmpty();
+    }
+
+    @Test
+    void storesEveryStatusAndPriorityByCode() throws IOException {
+        for (TicketStatus status : TicketStatus.values()) {
+            for (TicketPriority priority : TicketPriority.values()) {
+                ArchivedTicket ticket = ArchivedTicket.builder()
+                        .id(7L)
+                        .status(status)
+                        .priority(priority)
+                        .organizationId(1L)
+                        .createdById(2L)
+                        .build();
+
+                byte[] block = write(List.of(ticket));
+                // version, count, id, null title and description, then the two codes
+                int statusAt = 1 + Integer.BYTES + Long.BYTES + 2 * Integer.BYTES;
+                assertThat(block[statusAt]).isEqualTo((byte) status.getCode());
+                assertThat(block[statusAt + 1]).isEqualTo((byte) priority.getCode());
+                assertThat(read(block)).containsExactly(ticket);
+            }
+        }
+    }
+
+    @Test
+    void rejectsBlocksFromANewerFormat() throws IOException {
+        byte[] block = write(List.of());
+        block[0] = ArchiveCodec.FORMAT_VERSION + 1;
+
+        assertThatThrownBy(() -> read(block)).isInstanceOf(IOException.class)
+                .hasMessageContaining("Unsupported archive format version");
+    }
+
+    private static List<ArchivedTicket> roundTrip(List<ArchivedTicket> tickets) throws IOException {
+        return read(write(tickets));
+    }
+
+    private static byte[] write(List<ArchivedTicket> tickets) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            ArchiveCodec.writeBlock(out, tickets);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<ArchivedTicket> read(byte[] block) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(block))) {
+            return ArchiveCodec.readBlock(in);
+        }
+    }
+}
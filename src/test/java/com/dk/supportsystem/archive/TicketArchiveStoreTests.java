@@ -0,0 +1,108 @@
+package com.dk.supportsystem.archive;
+
+import com.dk.supportsystem.enums.TicketPriority;
+import com.dk.supportsystem.enums.TicketStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TicketArchiveStoreTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void findsTicketsInBlocksWithOverlappingRanges() throws IOException {
+        TicketArchiveStore store = open();
+        // Two archive runs, both starting from the lowest closed id
+        store.append(tickets(1, 5, 9));
+        store.append(tickets(3, 7, 11));
+
+        assertThat(store.find(5L)).hasValueSatisfying(t -> assertThat(t.getTitle()).isEqualTo("Ticket 5"));
+        assertThat(store.find(7L)).hasValueSatisfying(t -> assertThat(t.getTitle()).isEqualTo("Ticket 7"));
+        assertThat(store.find(4L)).isEmpty();
+        assertThat(store.find(12L)).isEmpty();
+    }
+
+    @Test
+    void idDirectorySkipsBlocksWithoutInflatingThem() throws IOException {
+        TicketArchiveStore writer = open();
+        writer.append(tickets(1, 5, 9));
+        writer.append(tickets(3, 7, 11));
+        // The first block covers 7 by range only; if it were inflated the lookup would fail
+        try (var channel = Files.newByteChannel(directory.resolve("segment-000000.seg"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 0}));
+        }
+
+        TicketArchiveStore reader = open();
+        assertThat(reader.find(7L)).isPresent();
+        assertThatThrownBy(() -> reader.find(5L)).isInstanceOf(UncheckedIOException.class);
+    }
+
+    @Test
+    void readerSeesBlocksAppendedByAnotherNode() throws IOException {
+        TicketArchiveStore writer = open();
+        writer.append(tickets(1, 2));
+        TicketArchiveStore reader = open();
+
+        writer.append(tickets(3, 4));
+
+        assertThat(reader.find(4L)).isPresent();
+        assertThat(reader.find(2L)).isPresent();
+    }
+
+    @Test
+    void interruptedAppendIsReplacedByTheNextOne() throws IOException {
+        open().append(tickets(1, 2));
+        // A crash after the id directory was written but before the index entry, plus half an index entry
+        Files.write(directory.resolve("archive.ids"), ByteBuffer.allocate(16).putInt(1).putInt(1).putLong(99).array(),
+                StandardOpenOption.APPEND);
+        Files.write(directory.resolve("archive.idx"), new byte[10], StandardOpenOption.APPEND);
+
+        TicketArchiveStore store = open();
+        assertThat(store.find(99L)).isEmpty();
+        store.append(tickets(5, 6));
+
+        TicketArchiveStore reopened = open();
+        assertThat(reopened.find(1L)).isPresent();
+        assertThat(reopened.find(6L)).isPresent();
+        assertThat(reopened.find(99L)).isEmpty();
+    }
+
+    private TicketArchiveStore open() throws IOException {
+        TicketArchiveStore store = new TicketArchiveStore();
+        ReflectionTestUtils.setField(store, "directory", directory.toString());
+        ReflectionTestUtils.setField(store, "segmentMaxBytes", 1L << 20);
+        ReflectionTestUtils.setField(store, "blockCacheSize", 4);
+        store.loadIndex();
+        return store;
+    }
+
+    private static List<ArchivedTicket> tickets(long... ids) {
+        return Arrays.stream(ids)
+                .mapToObj(id -> ArchivedTicket.builder()
+                        .id(id)
+                        .title("Ticket " + id)
+                        .status(TicketStatus.CLOSED)
+                        .priority(TicketPriority.LOW)
+                        .organizationId(1L)
+                        .createdById(2L)
+                        .createdAt(LocalDateTime.of(2025, 3, 1, 10, 0))
+                        .closedAt(LocalDateTime.of(2025, 3, 2, 10, 0))
+                        .build())
+                .toList();
+    }
+}
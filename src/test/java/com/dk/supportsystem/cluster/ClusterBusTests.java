@@ -0,0 +1,119 @@
+package com.dk.supportsystem.cluster;
+
+import com.dk.supportsystem.SupportSystemApplication;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs two application nodes against the same database and checks what crosses the bus between them.
+ */
+class ClusterBusTests {
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+    private RecordingSubscriber receivedByA;
+    private RecordingSubscriber receivedByB;
+
+    @BeforeEach
+    void startNodes() {
+        receivedByA = new RecordingSubscriber();
+        receivedByB = new RecordingSubscriber();
+        nodeA = start(receivedByA);
+        nodeB = start(receivedByB);
+
+        // Listeners connect in the background; probe until node B is subscribed
+        ClusterBus bus = nodeA.getBean(ClusterBus.class);
+        await().atMost(Duration.ofSeconds(10)).pollInterval(Duration.ofMillis(300)).untilAsserted(() -> {
+            bus.organizationChanged(0L);
+            assertThat(receivedByB.organizations).contains(0L);
+        });
+        await().pollDelay(Duration.ofMillis(500)).until(() -> true);
+        receivedByA.clear();
+        receivedByB.clear();
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void committedChangesReachOtherNodeCoalesced() {
+        ClusterBus bus = nodeA.getBean(ClusterBus.class);
+        nodeA.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            bus.ticketChanged(1L, 100L);
+            bus.ticketChanged(1L, 100L);
+            bus.ticketChanged(1L, 101L);
+        });
+
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(receivedByB.tickets).containsExactlyInAnyOrder(100L, 101L));
+        assertThat(receivedByB.organizations).containsExactly(1L);
+        assertThat(receivedByB.ticketDispatches).hasValue(1);
+        assertThat(receivedByA.tickets).isEmpty();
+    }
+
+    @Test
+    void rolledBackChangesAreNotSent() {
+        ClusterBus bus = nodeA.getBean(ClusterBus.class);
+        nodeA.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            bus.ticketChanged(1L, 200L);
+            status.setRollbackOnly();
+        });
+        bus.organizationChanged(2L);
+
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(receivedByB.organizations).containsExactly(2L));
+        assertThat(receivedByB.tickets).isEmpty();
+    }
+
+    private static ConfigurableApplicationContext start(RecordingSubscriber subscriber) {
+        return new SpringApplicationBuilder(SupportSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(context -> context.getBeanFactory()
+                        .registerSingleton("recordingSubscriber", subscriber))
+                // create-drop would let each node wipe the other's schema
+                .run("--spring.jpa.hibernate.ddl-auto=update", "--cluster.coalesce-ms=200");
+    }
+
+    static class RecordingSubscriber implements ClusterSubscriber {
+        final Set<Long> tickets = ConcurrentHashMap.newKeySet();
+        final Set<Long> organizations = ConcurrentHashMap.newKeySet();
+        final AtomicInteger ticketDispatches = new AtomicInteger();
+
+        void clear() {
+            tickets.clear();
+            organizations.clear();
+            ticketDispatches.set(0);
+        }
+
+        @Override
+        public void onTicketsChanged(Set<Long> ticketIds) {
+            tickets.addAll(ticketIds);
+            ticketDispatches.incrementAndGet();
+        }
+
+        @Override
+        public void onOrganizationsChanged(Set<Long> organizationIds) {
+            organizations.addAll(organizationIds);
+        }
+
+        @Override
+        public void onResync() {
+        }
+    }
+}
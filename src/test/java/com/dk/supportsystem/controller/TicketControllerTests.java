@@ -0,0 +1,122 @@
+package com.dk.supportsystem.controller;
+
+import com.dk.supportsystem.dto.response.CompactPayloads;
+import com.dk.supportsystem.dto.response.ResourceVersion;
+import com.dk.supportsystem.dto.response.TicketResponse;
+import com.dk.supportsystem.dto.response.TicketSummaryResponse;
+import com.dk.supportsystem.enums.TicketPriority;
+import com.dk.supportsystem.enums.TicketStatus;
+import com.dk.supportsystem.service.ConcurrentUpdateRetrier;
+import com.dk.supportsystem.service.IdempotencyService;
+import com.dk.supportsystem.service.TicketListCache;
+import com.dk.supportsystem.service.TicketReadCoalescer;
+import com.dk.supportsystem.service.TicketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.cfg.MapperBuilder;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Content negotiation of the ticket endpoints that serve cached or pre-serialized JSON: binary clients must still get
+ * the format they asked for.
+ */
+class TicketControllerTests {
+
+    private static final Long USER_ID = 2L;
+
+    private final TicketService ticketService = mock(TicketService.class);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new TicketController(ticketService,
+                    mock(ConcurrentUpdateRetrier.class), mock(IdempotencyService.class), mock(TicketListCache.class),
+                    new TicketReadCoalescer(ticketService, JsonMapper.builder().build())))
+            .build();
+    private final UsernamePasswordAuthenticationToken authentication =
+            new UsernamePasswordAuthenticationToken(USER_ID, null, List.of());
+
+    @BeforeEach
+    void setUp() {
+        when(ticketService.getTicketVersion(7L, USER_ID))
+                .thenReturn(ResourceVersion.weak("t7-v1-m0", LocalDateTime.of(2026, 1, 5, 9, 30)));
+        when(ticketService.getTicketById(7L, USER_ID)).thenReturn(TicketResponse.builder()
+                .id(7L)
+                .title("Printer on fire")
+                .status(TicketStatus.OPEN)
+                .priority(TicketPriority.HIGH)
+                .build());
+    }
+
+    @Test
+    void ticketAnswersJson() throws Exception {
+        TicketResponse ticket = read(JsonMapper.builder(), "/api/v1/tickets/7", MediaType.APPLICATION_JSON_VALUE,
+                TicketResponse.class);
+
+        assertThat(ticket.getTitle()).isEqualTo("Printer on fire");
+    }
+
+    @Test
+    void ticketAnswersCbor() throws Exception {
+        TicketResponse ticket = read(CBORMapper.builder(), "/api/v1/tickets/7", MediaType.APPLICATION_CBOR_VALUE,
+                TicketResponse.class);
+
+        assertThat(ticket.getTitle()).isEqualTo("Printer on fire");
+        assertThat(ticket.getPriority()).isEqualTo(TicketPriority.HIGH);
+    }
+
+    @Test
+    void ticketAnswersSmile() throws Exception {
+        TicketResponse ticket = read(SmileMapper.builder(), "/api/v1/tickets/7", CompactPayloads.SMILE_VALUE,
+                TicketResponse.class);
+
+        assertThat(ticket.getTitle()).isEqualTo("Printer on fire");
+    }
+
+    @Test
+    void summaryPageAnswersCbor() throws Exception {
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("createdAt").descending());
+        when(ticketService.getTicketSummaries(USER_ID, null, null, null, pageable))
+                .thenReturn(new PageImpl<>(List.of(TicketSummaryResponse.builder()
+                        .id(7L)
+                        .title("Printer on fire")
+                        .status(TicketStatus.OPEN)
+                        .build()), pageable, 1));
+
+        JsonNode page = read(CBORMapper.builder(), "/api/v1/tickets?view=summary", MediaType.APPLICATION_CBOR_VALUE,
+                JsonNode.class);
+
+        assertThat(page.get("content").get(0).get("title").asString()).isEqualTo("Printer on fire");
+    }
+
+    private <T> T read(MapperBuilder<?, ?> mapper, String path, String accept, Class<T> type) throws Exception {
+        MvcResult result = mockMvc.perform(get(path).accept(accept).principal(authentication))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(accept))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn();
+        ObjectMapper reader = mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build();
+        return reader.readValue(result.getResponse().getContentAsByteArray(), type);
+    }
+}
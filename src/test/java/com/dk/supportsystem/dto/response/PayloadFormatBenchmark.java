@@ -0,0 +1,114 @@
+package com.dk.supportsystem.dto.response;
+
+import com.dk.supportsystem.enums.TicketPriority;
+import com.dk.supportsystem.enums.TicketStatus;
+import com.dk.supportsystem.enums.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Payload size and encode/decode time of a 100-ticket page: JSON as served today against the compact
+ * CBOR and Smile shapes. Not part of the default test run; use {@code mvn test -Dtest=PayloadFormatBenchmark}.
+ */
+class PayloadFormatBenchmark {
+    
+    private static final int PAGE_SIZE = 100;
+    private static final int USERS = 8;
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 5_000;
+    
+    private final ObjectMapper json = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private final ObjectMapper cbor = CBORMapper.builder().build();
+    private final ObjectMapper smile = SmileMapper.builder().build();
+    
+    @Test
+    void compareTicketPageFormats() {
+        PageImpl<TicketResponse> page = new PageImpl<>(tickets(), PageRequest.of(0, PAGE_SIZE), 5_000);
+        CompactTicketPageResponse compact = CompactPayloads.ticketPage(page);
+        
+        Result jsonResult = measure("json", json, page, JsonPage.class);
+        Result cborResult = measure("cbor compact", cbor, compact, CompactTicketPageResponse.class);
+        Result smileResult = measure("smile compact", smile, compact, CompactTicketPageResponse.class);
+        
+        System.out.printf("%-14s %10s %12s %12s%n", "format", "bytes", "encode (us)", "decode (us)");
+        for (Result result : List.of(jsonResult, cborResult, smileResult)) {
+            System.out.printf("%-14s %10d %12.1f %12.1f%n",
+                    result.format(), result.bytes(), result.encodeMicros(), result.decodeMicros());
+        }
+        
+        assertThat(cborResult.bytes()).isLessThan(jsonResult.bytes());
+        assertThat(smileResult.bytes()).isLessThan(jsonResult.bytes());
+    }
+    
+    private Result measure(String format, ObjectMapper mapper, Object value, Class<?> type) {
+        byte[] bytes = mapper.writeValueAsBytes(value);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(value), type);
+        }
+        
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            bytes = mapper.writeValueAsBytes(value);
+        }
+        long encodeNanos = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            mapper.readValue(bytes, type);
+        }
+        long decodeNanos = System.nanoTime() - start;
+        
+        return new Result(format, bytes.length,
+                encodeNanos / 1_000.0 / MEASURED_ROUNDS, decodeNanos / 1_000.0 / MEASURED_ROUNDS);
+    }
+    
+    private static List<TicketResponse> tickets() {
+        List<UserResponse> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(UserResponse.builder()
+                    .id((long) i)
+                    .email("agent" + i + "@example.com")
+                    .fullName("Support Agent " + i)
+                    .role(i == 1 ? UserRole.ADMIN : UserRole.AGENT)
+                    .organizationName("Example Corp")
+                    .build());
+        }
+        
+        LocalDateTime base = LocalDateTime.of(2025, 3, 1, 9, 0);
+        List<TicketResponse> tickets = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            tickets.add(TicketResponse.builder()
+                    .id(10_000L + i)
+                    .title("Cannot log in to the dashboard #" + i)
+                    .description("Since this morning the login page returns an error after submitting credentials.")
+                    .status(TicketStatus.values()[i % 3])
+                    .priority(TicketPriority.values()[i % 4])
+                    .createdBy(users.get(i % USERS))
+                    .assignedTo(i % 3 == 0 ? null : users.get((i + 1) % USERS))
+                    .createdAt(base.plusMinutes(i))
+                    .updatedAt(base.plusMinutes(i + 30))
+                    .build());
+        }
+        return tickets;
+    }
+    
+    private record Result(String format, int bytes, double encodeMicros, double decodeMicros) {
+    }
+    
+    private record JsonPage(List<TicketResponse> content, long totalElements, int totalPages) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.dk.supportsystem.mail;
+
+import com.dk.supportsystem.enums.MailSourceFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MailSourceTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void mboxResumesAfterCheckpoint() throws IOException {
+        Path mbox = dir.resolve("support.mbox");
+        Files.writeString(mbox, """
+                From alice@example.com Mon Jan  1 10:00:00 2024
+                Message-ID: <1@example.com>
+                Subject: Printer broken
+
+                It does not print.
+                >From the second floor.
+
+                From bob@example.com Mon Jan  1 11:00:00 2024
+                Message-ID: <2@example.com>
+                In-Reply-To: <1@example.com>
+                Subject: Re: Printer broken
+
+                Have you tried turning it off?
+
+                From alice@example.com Mon Jan  1 12:00:00 2024
+                Message-ID: <3@example.com>
+                References: <1@example.com> <2@example.com>
+                Subject: Re: Printer broken
+
+                Yes.
+                """);
+
+        RawMail first;
+        try (MailSource source = MailSource.open(MailSourceFormat.MBOX, mbox, null, 0, 1 << 20, 10)) {
+            first = source.next();
+        }
+        ParsedMail parsed = MailParser.parse(first.content());
+        assertThat(parsed.messageId()).isEqualTo("1@example.com");
+        assertThat(parsed.body()).contains("From the second floor.").doesNotContain(">From");
+
+        List<String> rest = new ArrayList<>();
+        try (MailSource source = MailSource.open(MailSourceFormat.MBOX, mbox, first.file(), first.offset(), 1 << 20, 10)) {
+            for (RawMail raw = source.next(); raw != null; raw = source.next()) {
+                rest.add(MailParser.parse(raw.content()).messageId());
+            }
+        }
+        assertThat(rest).containsExactly("2@example.com", "3@example.com");
+    }
+
+    @Test
+    void parsesEncodedHeadersAndPrefersPlainText() {
+        String raw = """
+                Message-ID: <m@example.com>
+                From: =?UTF-8?B?SsO8cmdlbg==?= <Juergen@Example.com>
+                Subject: =?UTF-8?Q?Gr=C3=BC=C3=9Fe?=
+                In-Reply-To: <a@example.com>
+                References: <root@example.com> <a@example.com>
+                Content-Type: multipart/alternative; boundary="b1"
+
+                --b1
+                Content-Type: text/plain; charset=UTF-8
+                Content-Transfer-Encoding: quoted-printable
+
+                Sch=C3=B6n
+                --b1
+                Content-Type: text/html; charset=UTF-8
+
+                <p>HTML</p>
+                --b1--
+                """.replace("\n", "\r\n");
+
+        ParsedMail mail = MailParser.parse(raw.getBytes(StandardCharsets.US_ASCII));
+
+        assertThat(mail.fromName()).isEqualTo("Jürgen");
+        assertThat(mail.fromAddress()).isEqualTo("juergen@example.com");
+        assertThat(mail.subject()).isEqualTo("Grüße");
+        assertThat(mail.body().strip()).isEqualTo("Schön");
+        assertThat(mail.references()).containsExactly("a@example.com", "root@example.com");
+    }
+
+    @Test
+    void maildirReadsPastWindowAndResumes() throws IOException {
+        Files.createDirectories(dir.resolve("new"));
+        Files.createDirectories(dir.resolve("cur"));
+        for (int i = 0; i < 7; i++) {
+            Files.writeString(dir.resolve("cur").resolve("c" + i), "Message-ID: <c" + i + "@x>\n\nbody\n");
+        }
+        Files.writeString(dir.resolve("new").resolve("n0"), "Message-ID: <n0@x>\n\nbody\n");
+
+        List<String> ids = new ArrayList<>();
+        RawMail checkpoint = null;
+        try (MailSource source = MailSource.open(MailSourceFormat.MAILDIR, dir, null, 0, 1 << 20, 3)) {
+            for (int i = 0; i < 4; i++) {
+                checkpoint = source.next();
+                ids.add(MailParser.parse(checkpoint.content()).messageId());
+            }
+        }
+        try (MailSource source = MailSource.open(MailSourceFormat.MAILDIR, dir, checkpoint.file(), 0, 1 << 20, 3)) {
+            for (RawMail raw = source.next(); raw != null; raw = source.next()) {
+                ids.add(MailParser.parse(raw.content()).messageId());
+            }
+        }
+
+        assertThat(ids).containsExactly("c0@x", "c1@x", "c2@x", "c3@x", "c4@x", "c5@x", "c6@x", "n0@x");
+    }
+}
@@ -0,0 +1,256 @@
+package com.dk.supportsystem.repository;
+
+import com.dk.supportsystem.enums.TicketStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Explains the SQL the repositories actually send, with the values they bind, against a schema built by
+ * the Flyway migrations rather than by Hibernate, so the plans use the indexes production has.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.clean-disabled=false",
+        "spring.flyway.schemas=" + TicketQueryPlanTests.SCHEMA,
+        "spring.datasource.hikari.schema=" + TicketQueryPlanTests.SCHEMA,
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+@Transactional
+class TicketQueryPlanTests {
+
+    static final String SCHEMA = "query_plan_tests";
+
+    private static final ThreadLocal<List<RecordedStatement>> RECORDED = new ThreadLocal<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketMessageRepository messageRepository;
+
+    @BeforeEach
+    void disableSeqScan() {
+        // Test tables are tiny, so without this the planner would always prefer a sequential scan
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    @Test
+    void organizationPageSeeksCompositeIndexWithoutSort() {
+        String plan = explain(() -> ticketRepository.findByFilters(1L, null, null, null, newestFirst("createdAt")));
+
+        assertThat(plan).contains("idx_tickets_org_created_at").doesNotContain("Sort");
+    }
+
+    @Test
+    void organizationStatusPageSeeksCompositeIndexWithoutSort() {
+        String plan = explain(() -> ticketRepository.findByFilters(1L, TicketStatus.OPEN, null, null,
+                newestFirst("createdAt")));
+
+        assertThat(plan).contains("idx_tickets_org_status_created_at").doesNotContain("Sort");
+    }
+
+    @Test
+    void organizationAssigneePageSeeksCompositeIndexWithoutSort() {
+        String plan = explain(() -> ticketRepository.findByFilters(1L, null, 2L, null, newestFirst("createdAt")));
+
+        assertThat(plan).contains("idx_tickets_org_assigned_created_at").doesNotContain("Sort");
+    }
+
+    @Test
+    void summaryPageSeeksCompositeIndexWithoutSort() {
+        String plan = explain(() -> ticketRepository.findSummariesByFilters(1L, TicketStatus.OPEN, null, null,
+                newestFirst("createdAt")));
+
+        assertThat(plan).contains("idx_tickets_org_status_created_at").doesNotContain("Sort");
+    }
+
+    @Test
+    void organizationActivityPageSeeksLastMessageIndexWithoutSort() {
+        LocalDateTime since = LocalDateTime.now().minusDays(7);
+        String plan = explain(() -> ticketRepository.findByFilters(1L, null, null, since, newestFirst("lastMessageAt")));
+
+        assertThat(plan).contains("idx_tickets_org_last_message_at").doesNotContain("Sort");
+    }
+
+    @Test
+    void workQueueReadsOpenAssignmentIndex() {
+        String plan = explain(() -> ticketRepository.findAssignedForWorkQueue(
+                EnumSet.of(TicketStatus.OPEN, TicketStatus.IN_PROGRESS, TicketStatus.WAITING)));
+
+        assertThat(plan).contains("idx_tickets_assigned_status_open");
+    }
+
+    @Test
+    void messageThreadReadsInIndexOrder() {
+        String plan = explain(() -> messageRepository.findByTicketIdOrderByCreatedAtAsc(1L));
+
+        assertThat(plan).contains("idx_ticket_messages_ticket_created_at").doesNotContain("Sort");
+    }
+
+    @Test
+    void publicThreadReadsPartialIndexWithoutSort() {
+        String plan = explain(() -> messageRepository.findPublicByTicketIdOrderByCreatedAtAsc(1L));
+
+        assertThat(plan).contains("idx_ticket_messages_ticket_public_created_at")
+                .doesNotContain("Sort").doesNotContain("Filter");
+    }
+
+    private static Pageable newestFirst(String property) {
+        return PageRequest.of(0, 10, Sort.by(property).descending());
+    }
+
+    /**
+     * Runs the repository call, then explains the first query it sent with the parameters it bound.
+     */
+    private String explain(Runnable repositoryCall) {
+        List<RecordedStatement> recorded = new ArrayList<>();
+        RECORDED.set(recorded);
+        try {
+            repositoryCall.run();
+        } finally {
+            RECORDED.remove();
+        }
+
+        RecordedStatement query = recorded.stream()
+                .filter(statement -> statement.sql().stripLeading().regionMatches(true, 0, "select", 0, 6))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No query sent, got " + recorded));
+
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + query.sql())) {
+                for (Binding binding : query.bindings()) {
+                    invoke(explain, binding.setter(), binding.args());
+                }
+                List<String> lines = new ArrayList<>();
+                try (ResultSet rows = explain.executeQuery()) {
+                    while (rows.next()) {
+                        lines.add(rows.getString(1));
+                    }
+                }
+                return String.join("\n", lines);
+            }
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws SQLException {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Connection recording(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> {
+                        Object result = invoke(connection, method, args);
+                        List<RecordedStatement> recorded = RECORDED.get();
+                        if (recorded != null && result instanceof PreparedStatement statement
+                                && method.getName().equals("prepareStatement")) {
+                            RecordedStatement entry = new RecordedStatement((String) args[0], new ArrayList<>());
+                            recorded.add(entry);
+                            yield recording(statement, entry);
+                        }
+                        yield result;
+                    }
+                });
+    }
+
+    private static PreparedStatement recording(PreparedStatement statement, RecordedStatement entry) {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    // Parameter setters take the index first; setFetchSize and friends take a single argument
+                    if (method.getName().startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer) {
+                        entry.bindings().add(new Binding(method, args.clone()));
+                    }
+                    return switch (method.getName()) {
+                        case "equals" -> proxy == args[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        default -> invoke(statement, method, args);
+                    };
+                });
+    }
+
+    private record RecordedStatement(String sql, List<Binding> bindings) {
+    }
+
+    private record Binding(Method setter, Object[] args) {
+    }
+
+    @TestConfiguration
+    static class PlanTestConfiguration {
+
+        // A schema of its own, rebuilt from the migrations on every run and left alone by create-drop contexts
+        @Bean
+        FlywayMigrationStrategy cleanMigrate() {
+            return flyway -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return recording(super.getConnection());
+                        }
+
+                        @Override
+                        public Connection getConnection(String username, String password) throws SQLException {
+                            return recording(super.getConnection(username, password));
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.entity.Organization;
+import com.dk.supportsystem.entity.Ticket;
+import com.dk.supportsystem.repository.TicketRepository;
+import com.dk.supportsystem.shard.ShardCatalog;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class DuplicateTicketDetectorTests {
+
+    private static final Long ORGANIZATION_ID = 1L;
+
+    private final DuplicateTicketDetector detector = new DuplicateTicketDetector(mock(TicketRepository.class),
+            mock(ShardCatalog.class), Duration.ofHours(72), 100, 0.5);
+
+    @Test
+    void findsNearDuplicateThroughSharedBands() {
+        index(10L, null, "Printer on the 3rd floor is on fire", "Smoke coming out of the paper tray");
+        index(11L, null, "Invoice PDF shows the wrong VAT rate", null);
+
+        assertThat(find(ORGANIZATION_ID, "printer on 3rd floor is on fire!!", "Smoke coming out of the paper tray"))
+                .isEqualTo(10L);
+        assertThat(find(ORGANIZATION_ID, "Monthly report export times out", null)).isNull();
+        // Same opening as an indexed ticket, but under min-similarity
+        assertThat(find(ORGANIZATION_ID, "Printer on the 3rd floor needs toner", null)).isNull();
+    }
+
+    @Test
+    void resolvesDuplicatesToTheirOriginal() {
+        index(10L, null, "Password reset email never arrives", null);
+        index(12L, 10L, "Password reset e-mail never arrives", null);
+        detector.forget(ticket(10L, null));
+
+        assertThat(find(ORGANIZATION_ID, "Password reset e-mail never arrives!", null)).isEqualTo(10L);
+    }
+
+    @Test
+    void onlyMatchesWithinTheSameOrganization() {
+        index(10L, null, "Printer on the 3rd floor is on fire", null);
+
+        assertThat(find(2L, "Printer on the 3rd floor is on fire", null)).isNull();
+    }
+
+    private void index(Long id, Long duplicateOfId, String title, String description) {
+        detector.index(ticket(id, duplicateOfId), detector.signatureOf(title, description));
+    }
+
+    private Long find(Long organizationId, String title, String description) {
+        return detector.findOriginal(organizationId, detector.signatureOf(title, description));
+    }
+
+    private static Ticket ticket(Long id, Long duplicateOfId) {
+        Ticket ticket = Ticket.builder()
+                .organization(Organization.builder().build())
+                .duplicateOfId(duplicateOfId)
+                .build();
+        ticket.setId(id);
+        ticket.setCreatedAt(LocalDateTime.now());
+        ticket.getOrganization().setId(ORGANIZATION_ID);
+        return ticket;
+    }
+}
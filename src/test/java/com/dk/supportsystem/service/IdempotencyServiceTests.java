@@ -0,0 +1,89 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.enums.IdempotencyScope;
+import com.dk.supportsystem.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class IdempotencyServiceTests {
+
+    private static final Long USER_ID = 2L;
+
+    private final IdempotencyService service = new IdempotencyService(
+            mock(IdempotencyRecordRepository.class), Duration.ofHours(1), 1, 5_000);
+
+    @Test
+    void inFlightRequestIsNotEvictedByLaterOnes() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        IdempotencyKey slow = key("slow", "Printer on fire");
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> service.execute(slow, () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "first";
+        }, id -> "replayed"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Twice over the bound of one entry while the slow request is still running
+        service.execute(key("a", "Paper jam"), () -> "a", id -> "replayed");
+        service.execute(key("b", "Toner low"), () -> "b", id -> "replayed");
+
+        CompletableFuture<String> retry = CompletableFuture.supplyAsync(() -> service.execute(slow, () -> {
+            runs.incrementAndGet();
+            return "second";
+        }, id -> "replayed"));
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(retry.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void completedRequestsAreEvictedBeyondTheBound() {
+        AtomicInteger runs = new AtomicInteger();
+        IdempotencyKey first = key("first", "Printer on fire");
+
+        service.execute(first, runs::incrementAndGet, id -> -1);
+        service.execute(key("other", "Paper jam"), runs::incrementAndGet, id -> -1);
+        int again = service.execute(first, runs::incrementAndGet, id -> -1);
+
+        // Evicted from memory; with nothing persisted either, the action runs again
+        assertThat(again).isEqualTo(3);
+    }
+
+    @Test
+    void requestHashDependsOnEveryField() {
+        String hash = key("k", "Printer on fire").getRequestHash();
+
+        assertThat(key("k", "Printer on fire").getRequestHash()).isEqualTo(hash);
+        assertThat(service.keyFor(IdempotencyScope.CREATE_TICKET, USER_ID, "k", "Printer on", "fire", 3)
+                .getRequestHash()).isNotEqualTo(hash);
+        assertThat(service.keyFor(IdempotencyScope.CREATE_TICKET, USER_ID, "k", "Printer on fire", null, 3)
+                .getRequestHash()).isNotEqualTo(service.keyFor(IdempotencyScope.CREATE_TICKET, USER_ID, "k",
+                        "Printer on fire", "-", 3).getRequestHash());
+    }
+
+    private IdempotencyKey key(String key, String title) {
+        return service.keyFor(IdempotencyScope.CREATE_TICKET, USER_ID, key, title, "", 3);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.dk.supportsystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MinHashTests {
+
+    // duplicates.min-similarity in application.yml
+    private static final double MIN_SIMILARITY = 0.5;
+
+    @Test
+    void nearDuplicateTitlesAreAboveTheThreshold() {
+        assertThat(similarity("Printer on the 3rd floor is on fire", "printer on 3rd floor is on fire!!"))
+                .isGreaterThan(MIN_SIMILARITY);
+        assertThat(similarity("Cannot log in to the VPN from home since this morning",
+                "Can't log in to the VPN from home since this morning"))
+                .isGreaterThan(MIN_SIMILARITY);
+        assertThat(similarity("Password reset email never arrives", "Password reset e-mail never arrives"))
+                .isGreaterThan(MIN_SIMILARITY);
+    }
+
+    @Test
+    void unrelatedTitlesAreBelowTheThreshold() {
+        assertThat(similarity("Printer on the 3rd floor is on fire", "Invoice PDF shows the wrong VAT rate"))
+                .isLessThan(MIN_SIMILARITY);
+        assertThat(similarity("Password reset email never arrives", "Monthly report export times out"))
+                .isLessThan(MIN_SIMILARITY);
+        // Same opening, different problem
+        assertThat(similarity("Cannot log in to the VPN from home", "Cannot log in to the payroll portal"))
+                .isLessThan(MIN_SIMILARITY);
+    }
+
+    @Test
+    void normalizationIgnoresCaseAndPunctuation() {
+        int[] signature = MinHash.signature("Printer on fire");
+
+        assertThat(MinHash.signature("  PRINTER -- on, fire?! ")).isEqualTo(signature);
+        assertThat(MinHash.similarity(signature, signature)).isEqualTo(1.0);
+    }
+
+    @Test
+    void shortAndEmptyTextsStillGetASignature() {
+        assertThat(MinHash.signature("")).hasSize(MinHash.SIZE);
+        assertThat(MinHash.signature("?!")).isEqualTo(MinHash.signature(""));
+        assertThat(MinHash.signature("ok")).hasSize(MinHash.SIZE).isNotEqualTo(MinHash.signature(""));
+    }
+
+    @Test
+    void bandKeysDependOnTheBandAndItsRows() {
+        int[] signature = MinHash.signature("Printer on the 3rd floor is on fire");
+        int[] changed = signature.clone();
+        changed[MinHash.ROWS]++;
+
+        assertThat(MinHash.bandKey(changed, 0)).isEqualTo(MinHash.bandKey(signature, 0));
+        assertThat(MinHash.bandKey(changed, 1)).isNotEqualTo(MinHash.bandKey(signature, 1));
+        assertThat(MinHash.bandKey(signature, 0)).isNotEqualTo(MinHash.bandKey(new int[MinHash.SIZE], 0));
+    }
+
+    private static double similarity(String left, String right) {
+        return MinHash.similarity(MinHash.signature(left), MinHash.signature(right));
+    }
+}
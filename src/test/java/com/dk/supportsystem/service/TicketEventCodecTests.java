@@ -0,0 +1,60 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.enums.TicketEventType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TicketEventCodecTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 3, 1, 10, 0);
+
+    @Test
+    void roundTripsBoundaryValues() {
+        List<TicketEvent> events = List.of(
+                event(TicketEventType.CREATED, null, BASE, null, null, false),
+                // Events recorded before the row's created_at give negative offsets
+                event(TicketEventType.ASSIGNED, 0L, BASE.minusNanos(1_000_000), 0L, Long.MAX_VALUE, true),
+                event(TicketEventType.STATUS_CHANGED, Long.MAX_VALUE, BASE.minusYears(30), 3L, 4L, false),
+                event(TicketEventType.PRIORITY_CHANGED, 127L, BASE.plusYears(30), 128L, 16_383L, true),
+                event(TicketEventType.MESSAGE_ADDED, 16_384L, BASE.plusNanos(1_000_000), null, Long.MAX_VALUE - 1,
+                        false));
+
+        assertThat(TicketEventCodec.decode(TicketEventCodec.encode(events, BASE), BASE)).isEqualTo(events);
+        assertThat(TicketEventCodec.decode(TicketEventCodec.encode(List.of(), BASE), BASE)).isEmpty();
+    }
+
+    @Test
+    void typicalEventTakesAFewBytes() {
+        byte[] encoded = TicketEventCodec.encode(List.of(
+                event(TicketEventType.MESSAGE_ADDED, 42L, BASE.plusSeconds(90), null, 12_345L, false)), BASE);
+
+        // count, header, actor, offset (3 bytes of zig-zagged millis), null from, 2-byte to
+        assertThat(encoded).hasSize(9);
+        assertThat(Arrays.copyOf(encoded, 2)).containsExactly(1, TicketEventType.MESSAGE_ADDED.getCode() << 1);
+    }
+
+    @Test
+    void rejectsNegativeIdsInsteadOfReadingThemBackAsNull() {
+        List<TicketEvent> events = List.of(event(TicketEventType.ASSIGNED, -1L, BASE, null, null, false));
+
+        assertThatThrownBy(() -> TicketEventCodec.encode(events, BASE)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static TicketEvent event(TicketEventType type, Long actorId, LocalDateTime occurredAt,
+                                     Long fromValue, Long toValue, boolean internal) {
+        return TicketEvent.builder()
+                .type(type)
+                .actorId(actorId)
+                .occurredAt(occurredAt)
+                .fromValue(fromValue)
+                .toValue(toValue)
+                .internal(internal)
+                .build();
+    }
+}
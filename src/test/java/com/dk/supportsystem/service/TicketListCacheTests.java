@@ -0,0 +1,52 @@
+package com.dk.supportsystem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TicketListCacheTests {
+
+    private final TicketListCache cache =
+            new TicketListCache(JsonMapper.builder().build(), new SimpleMeterRegistry(), true, 1024);
+
+    @Test
+    void pollingLoadsOncePerChange() {
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int poll = 0; poll < 50; poll++) {
+            cache.get(1L, "full|OPEN|0", () -> List.of(loads.incrementAndGet()));
+        }
+        assertThat(loads).hasValue(1);
+
+        cache.invalidate(1L);
+        byte[] body = cache.get(1L, "full|OPEN|0", () -> List.of(loads.incrementAndGet()));
+        assertThat(new String(body)).isEqualTo("[2]");
+
+        cache.get(2L, "full|OPEN|0", () -> List.of(loads.incrementAndGet()));
+        cache.onOrganizationsChanged(Set.of(2L));
+        cache.get(1L, "full|OPEN|0", () -> List.of(loads.incrementAndGet()));
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondByteBudget() {
+        AtomicInteger loads = new AtomicInteger();
+        String payload = "x".repeat(40);
+
+        for (int page = 0; page < 30; page++) {
+            int current = page;
+            cache.get(1L, "full|" + page, () -> Map.of("page", current, "body", payload));
+        }
+        cache.get(1L, "full|29", () -> Map.of("loaded", loads.incrementAndGet()));
+        cache.get(1L, "full|0", () -> Map.of("loaded", loads.incrementAndGet()));
+
+        assertThat(loads).hasValue(1);
+    }
+}
@@ -0,0 +1,159 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.dto.response.TicketResponse;
+import com.dk.supportsystem.dto.response.UserResponse;
+import com.dk.supportsystem.entity.Organization;
+import com.dk.supportsystem.entity.Ticket;
+import com.dk.supportsystem.entity.User;
+import com.dk.supportsystem.enums.TicketPriority;
+import com.dk.supportsystem.enums.TicketStatus;
+import com.dk.supportsystem.enums.UserRole;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes allocated to map and serialize a 100-ticket page, with a user mapped per reference (as
+ * TicketService used to) against one {@link TicketResponseMapper} per page. Allocation is read from the
+ * thread's allocation counter, so the numbers are per request without a profiler attached. Not part of
+ * the default test run; use {@code mvn test -Dtest=TicketMappingBenchmark}.
+ */
+class TicketMappingBenchmark {
+    
+    private static final int PAGE_SIZE = 100;
+    private static final int USERS = 8;
+    private static final int WARMUP_ROUNDS = 5_000;
+    private static final int MEASURED_ROUNDS = 5_000;
+    
+    private final ObjectMapper json = JsonMapper.builder().build();
+    
+    @Test
+    void comparePerTicketAndPerPageMapping() {
+        List<Ticket> tickets = tickets();
+        
+        Result perTicket = measure("per ticket", tickets, TicketMappingBenchmark::mapPerReference);
+        Result perPage = measure("per page", tickets, null);
+        
+        System.out.printf("%-12s %16s %16s %12s%n", "mapping", "mapped (B/req)", "total (B/req)", "time (us)");
+        for (Result result : List.of(perTicket, perPage)) {
+            System.out.printf("%-12s %16d %16d %12.1f%n",
+                    result.mapping(), result.mappedBytes(), result.totalBytes(), result.micros());
+        }
+        
+        assertThat(perPage.mappedBytes()).isLessThan(perTicket.mappedBytes());
+    }
+    
+    // A null mapping means one shared mapper for the whole page
+    private Result measure(String name, List<Ticket> tickets, Function<Ticket, TicketResponse> mapping) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            json.writeValueAsBytes(map(tickets, mapping));
+        }
+        
+        long mappedBytes = 0;
+        long start = System.nanoTime();
+        long allocatedBefore = allocatedBytes();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long before = allocatedBytes();
+            List<TicketResponse> page = map(tickets, mapping);
+            mappedBytes += allocatedBytes() - before;
+            json.writeValueAsBytes(page);
+        }
+        long totalBytes = allocatedBytes() - allocatedBefore;
+        long elapsed = System.nanoTime() - start;
+        
+        return new Result(name, mappedBytes / MEASURED_ROUNDS, totalBytes / MEASURED_ROUNDS,
+                elapsed / 1_000.0 / MEASURED_ROUNDS);
+    }
+    
+    private static List<TicketResponse> map(List<Ticket> tickets, Function<Ticket, TicketResponse> mapping) {
+        Function<Ticket, TicketResponse> mapper = mapping != null ? mapping : new TicketResponseMapper()::ticket;
+        List<TicketResponse> page = new ArrayList<>(tickets.size());
+        for (Ticket ticket : tickets) {
+            page.add(mapper.apply(ticket));
+        }
+        return page;
+    }
+    
+    // The mapping TicketService did before TicketResponseMapper: a new UserResponse for every reference
+    private static TicketResponse mapPerReference(Ticket ticket) {
+        return TicketResponse.builder()
+                .id(ticket.getId())
+                .title(ticket.getTitle())
+                .description(ticket.getDescription())
+                .status(ticket.getStatus())
+                .priority(ticket.getPriority())
+                .createdBy(userResponse(ticket.getCreatedBy()))
+                .assignedTo(ticket.getAssignedTo() != null ? userResponse(ticket.getAssignedTo()) : null)
+                .createdAt(ticket.getCreatedAt())
+                .updatedAt(ticket.getUpdatedAt())
+                .resolvedAt(ticket.getResolvedAt())
+                .closedAt(ticket.getClosedAt())
+                .duplicateOfId(ticket.getDuplicateOfId())
+                .lastMessageAt(ticket.getLastMessageAt())
+                .lastMessageById(ticket.getLastMessageBy())
+                .messageCount(ticket.getMessageCount())
+                .publicMessageCount(ticket.getPublicMessageCount())
+                .build();
+    }
+    
+    private static UserResponse userResponse(User user) {
+        return UserResponse.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .fullName(user.getFullName())
+                .role(user.getRole())
+                .organizationName(user.getOrganization().getName())
+                .build();
+    }
+    
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+    
+    private static List<Ticket> tickets() {
+        Organization organization = Organization.builder().name("Example Corp").build();
+        organization.setId(1L);
+        List<User> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            User user = User.builder()
+                    .email("agent" + i + "@example.com")
+                    .fullName("Support Agent " + i)
+                    .role(i == 1 ? UserRole.ADMIN : UserRole.AGENT)
+                    .organization(organization)
+                    .build();
+            user.setId((long) i);
+            users.add(user);
+        }
+        
+        LocalDateTime base = LocalDateTime.of(2025, 3, 1, 9, 0);
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Ticket ticket = Ticket.builder()
+                    .title("Cannot log in to the dashboard #" + i)
+                    .description("Since this morning the login page returns an error after submitting credentials.")
+                    .status(TicketStatus.values()[i % 3])
+                    .priority(TicketPriority.values()[i % 4])
+                    .organization(organization)
+                    .createdBy(users.get(i % USERS))
+                    .assignedTo(i % 3 == 0 ? null : users.get((i + 1) % USERS))
+                    .lastMessageAt(base.plusMinutes(i + 30))
+                    .build();
+            ticket.setId(10_000L + i);
+            ticket.setCreatedAt(base.plusMinutes(i));
+            ticket.setUpdatedAt(base.plusMinutes(i + 30));
+            tickets.add(ticket);
+        }
+        return tickets;
+    }
+    
+    private record Result(String mapping, long mappedBytes, long totalBytes, double micros) {
+    }
+}
@@ -0,0 +1,155 @@
+package com.dk.supportsystem.service;
+
+import com.dk.supportsystem.archive.TicketArchiveStore;
+import com.dk.supportsystem.cluster.ClusterBus;
+import com.dk.supportsystem.dto.response.ResourceVersion;
+import com.dk.supportsystem.entity.Organization;
+import com.dk.supportsystem.entity.Ticket;
+import com.dk.supportsystem.entity.TicketMessage;
+import com.dk.supportsystem.entity.User;
+import com.dk.supportsystem.enums.MessageVisibility;
+import com.dk.supportsystem.enums.TicketPriority;
+import com.dk.supportsystem.enums.TicketStatus;
+import com.dk.supportsystem.enums.UserRole;
+import com.dk.supportsystem.repository.MessageAttachmentRepository;
+import com.dk.supportsystem.repository.SlaConfigRepository;
+import com.dk.supportsystem.repository.TicketMessageRepository;
+import com.dk.supportsystem.repository.TicketRepository;
+import com.dk.supportsystem.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the coalescer over a real {@link TicketService} and counts the repository calls, so a burst is
+ * shown to cost one round of queries rather than one service call.
+ */
+class TicketReadCoalescerTests {
+
+    private static final int CLIENTS = 32;
+
+    private final TicketRepository ticketRepository = mock(TicketRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TicketMessageRepository messageRepository = mock(TicketMessageRepository.class);
+    private final MessageAttachmentRepository attachmentRepository = mock(MessageAttachmentRepository.class);
+    private final TicketService ticketService = new TicketService(ticketRepository, userRepository,
+            messageRepository, mock(SlaConfigRepository.class), attachmentRepository,
+            mock(TicketArchiveStore.class), mock(FirstResponseTracker.class), mock(IdempotencyService.class),
+            mock(AgentWorkQueue.class), mock(TicketHistoryRecorder.class), mock(DuplicateTicketDetector.class),
+            mock(ClusterBus.class), mock(TicketListCache.class));
+    private final TicketReadCoalescer coalescer = new TicketReadCoalescer(ticketService, JsonMapper.builder().build());
+    private final ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+    private final List<Thread> clientThreads = new ArrayList<>();
+
+    private volatile CountDownLatch database = new CountDownLatch(1);
+    private User agent;
+    private Ticket ticket;
+
+    @BeforeEach
+    void setUp() {
+        Organization organization = Organization.builder().name("Acme").build();
+        organization.setId(1L);
+        agent = User.builder().email("agent@acme.test").fullName("Alex Agent").role(UserRole.AGENT)
+                .organization(organization).build();
+        agent.setId(2L);
+        ticket = Ticket.builder().title("Printer on fire").status(TicketStatus.OPEN).priority(TicketPriority.HIGH)
+                .organization(organization).createdBy(agent).build();
+        ticket.setId(7L);
+        ticket.setCreatedAt(LocalDateTime.now());
+
+        // Every request reads as the same agent; the coalescer trusts the access check its callers already ran
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(agent));
+        when(ticketRepository.findById(7L)).thenAnswer(invocation -> {
+            database.await();
+            return Optional.of(ticket);
+        });
+    }
+
+    @AfterEach
+    void shutDown() {
+        clients.shutdownNow();
+    }
+
+    @Test
+    void burstOfTicketReadsRunsOneLoadPerVersion() throws Exception {
+        List<byte[]> first = burst(user -> coalescer.ticket(7L, user, ResourceVersion.weak("t7-v1-m0", null)));
+        verify(ticketRepository, times(1)).findById(7L);
+        verify(userRepository, times(1)).findById(anyLong());
+        assertThat(first).allSatisfy(body -> assertThat(body).isSameAs(first.get(0)));
+        assertThat(new String(first.get(0))).contains("Printer on fire");
+
+        // A newer version must not be answered from the previous load
+        burst(user -> coalescer.ticket(7L, user, ResourceVersion.weak("t7-v2-m0", null)));
+        verify(ticketRepository, times(2)).findById(7L);
+    }
+
+    @Test
+    void burstOfThreadReadsRunsOneLoad() throws Exception {
+        TicketMessage message = TicketMessage.builder().id(11L).ticket(ticket).user(agent).message("Still burning")
+                .isInternal(false).createdAt(LocalDateTime.now()).build();
+        when(messageRepository.findByTicketIdOrderByCreatedAtAsc(7L)).thenReturn(List.of(message));
+        when(attachmentRepository.findByMessageIdInOrderByIdAsc(anyList())).thenReturn(List.of());
+
+        List<byte[]> bodies = burst(user -> coalescer.messages(7L, MessageVisibility.ALL, user, ResourceVersion.weak("m7-1", null)));
+
+        verify(ticketRepository, times(1)).findById(7L);
+        verify(messageRepository, times(1)).findByTicketIdOrderByCreatedAtAsc(7L);
+        verify(attachmentRepository, times(1)).findByMessageIdInOrderByIdAsc(anyList());
+        assertThat(new String(bodies.get(CLIENTS - 1))).contains("Still burning");
+    }
+
+    private List<byte[]> burst(Function<Long, byte[]> read) throws Exception {
+        database = new CountDownLatch(1);
+        synchronized (this) {
+            clientThreads.clear();
+        }
+        List<Future<byte[]>> responses = new ArrayList<>();
+        for (long user = 1; user <= CLIENTS; user++) {
+            long id = user;
+            responses.add(clients.submit(() -> {
+                register(Thread.currentThread());
+                return read.apply(id);
+            }));
+        }
+
+        // Release the load only once every client is parked on it, so the burst is fully concurrent
+        await().atMost(Duration.ofSeconds(5)).until(this::allClientsWaiting);
+        database.countDown();
+
+        List<byte[]> bodies = new ArrayList<>();
+        for (Future<byte[]> response : responses) {
+            bodies.add(response.get());
+        }
+        return bodies;
+    }
+
+    private synchronized void register(Thread thread) {
+        clientThreads.add(thread);
+    }
+
+    private synchronized boolean allClientsWaiting() {
+        return clientThreads.size() == CLIENTS && clientThreads.stream()
+                .allMatch(thread -> thread.getState() == Thread.State.WAITING);
+    }
+}